@@ -1,15 +1,48 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Supplier;
 
 // Imports de cada demo (en sus paquetes)
 import creacional.NotificacionFactorySimple;
 import creacional.GeneradorIdsMulti;
+import creacional.CargaCreacional;
 import estructural.AdapterPasarelaPagosSimple;
 import estructural.FacadeHealthcheckUltraSimple;
+import estructural.CargaEstructural;
 import comportamiento.ObserverPrecioDinamicoSimple;
 import comportamiento.CommandFileSystemSimulado;
+import comportamiento.CargaComportamiento;
+import soporte.Carga;
+import soporte.Escenario;
+import soporte.Metricas;
 
+/**
+ * Sin argumentos: menú interactivo de demos.
+ * Con argumentos: modo de carga headless, p.ej.
+ *   java Main --carga ids,pagos --hilos 8 --virtuales --duracion 30 --tasa 50000 --csv carga.csv
+ *   java Main --carga todos
+ * Opciones: --hilos N (4) · --virtuales · --duracion s (10) · --calentamiento s (2) · --tasa ops/s (sin límite) · --csv archivo
+ *           · --metricas (al final imprime el registro de soporte.Metricas)
+ * Eventos JFR: java -XX:StartFlightRecording=filename=carga.jfr Main --carga todos
+ */
 public class Main {
 
+    /** Un escenario de carga por demo del menú, en el mismo orden. */
+    private static final Map<String, Supplier<Escenario>> ESCENARIOS = new LinkedHashMap<>();
+    static {
+        ESCENARIOS.put("notificaciones", CargaCreacional::notificaciones);
+        ESCENARIOS.put("ids", CargaCreacional::ids);
+        ESCENARIOS.put("pagos", CargaEstructural::pagos);
+        ESCENARIOS.put("healthcheck", CargaEstructural::healthcheck);
+        ESCENARIOS.put("observer", CargaComportamiento::observer);
+        ESCENARIOS.put("comandos", CargaComportamiento::comandos);
+    }
+
     private static final Scanner in = new Scanner(System.in);
 
     private static void pausa() {
@@ -31,7 +64,49 @@ public class Main {
         pausa();
     }
 
-    public static void main(String[] args) {
+    private static void carga(String[] args) throws Exception {
+        Carga.Config cfg = new Carga.Config();
+        List<String> nombres = new ArrayList<>();
+        Path csv = null;
+        boolean metricas = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--carga":
+                    String lista = valor(args, ++i);
+                    nombres.addAll(lista.equals("todos") ? ESCENARIOS.keySet() : Arrays.asList(lista.split(",")));
+                    break;
+                case "--hilos": cfg.hilos(Integer.parseInt(valor(args, ++i))); break;
+                case "--virtuales": cfg.virtuales(true); break;
+                case "--duracion": cfg.duracionS(Double.parseDouble(valor(args, ++i))); break;
+                case "--calentamiento": cfg.calentamientoS(Double.parseDouble(valor(args, ++i))); break;
+                case "--tasa": cfg.tasa(Double.parseDouble(valor(args, ++i))); break;
+                case "--csv": csv = Path.of(valor(args, ++i)); break;
+                case "--metricas": metricas = true; break;
+                default: throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+            }
+        }
+        if (nombres.isEmpty()) throw new IllegalArgumentException("Falta --carga <" + String.join("|", ESCENARIOS.keySet()) + "|todos>");
+        List<Supplier<Escenario>> escenarios = new ArrayList<>();
+        for (String n : nombres) {
+            Supplier<Escenario> s = ESCENARIOS.get(n.trim());
+            if (s == null) throw new IllegalArgumentException("Escenario desconocido: " + n + " (" + String.join(", ", ESCENARIOS.keySet()) + ")");
+            escenarios.add(s);
+        }
+        Carga.correrTodos(nombres, escenarios, cfg, csv);
+        if (metricas) System.out.print(Metricas.reporte());
+    }
+
+    private static String valor(String[] args, int i) {
+        if (i >= args.length) throw new IllegalArgumentException("Falta el valor de " + args[i - 1]);
+        return args[i];
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            try { carga(args); }
+            catch (IllegalArgumentException e) { System.out.println("ERROR: " + e.getMessage()); System.exit(2); }
+            return;
+        }
         while (true) {
             System.out.println("==== MENÚ DEMOS (Patrones en consola) ====");
             System.out.println(" 1) Factory Method — Notificaciones");
@@ -0,0 +1,57 @@
+package comportamiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH — Invocador.run/undo/redo sobre stores de tamaño creciente.
+ * runUndo crea y deshace un archivo; undoRedo alterna undo/redo de un mover;
+ * ambos dejan el store como estaba, así el tamaño no deriva durante la medición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvocadorJmh {
+    @Param({"1000", "100000", "1000000"})
+    public int archivos;
+
+    @Param({"arbol", "concurrente"})
+    public String sistema;
+
+    private SistemaArchivos fs;
+    private Invocador inv;
+
+    @Setup
+    public void preparar() {
+        fs = sistema.equals("arbol") ? new SistemaArchivos() : new SistemaArchivosConcurrente();
+        for (int i = 0; i < archivos; i++) fs.escribir(String.format("/datos/%07d", i), "contenido");
+        inv = new Invocador();
+        inv.run(new ComandoMover(fs, "/datos/0000000", "/movido"));
+    }
+
+    @Benchmark
+    public String runUndo() {
+        inv.run(new ComandoCrear(fs, "/datos/nuevo", "x"));
+        return inv.undo();
+    }
+
+    @Benchmark
+    public String undoRedo() {
+        inv.undo();
+        return inv.redo();
+    }
+}
@@ -0,0 +1,55 @@
+package comportamiento;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH — Market.setDemanda sin debounce, con 1 a 1000 observadores triviales: mide el fan-out.
+ * La línea "Demanda: ..." que imprime notificar() va a un stream nulo durante la medición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketJmh {
+    static final class Contador implements Observador {
+        long n;
+        public void update(String nivel) { n += nivel.length(); }
+    }
+
+    @Param({"1", "10", "100", "1000"})
+    public int observadores;
+
+    private Market market;
+    private PrintStream consola;
+
+    @Setup
+    public void preparar() {
+        consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        market = new Market(0);
+        for (int i = 0; i < observadores; i++) market.attach(new Contador());
+    }
+
+    @TearDown
+    public void restaurar() { System.setOut(consola); }
+
+    @Benchmark
+    public void setDemanda() { market.setDemanda("alta"); }
+}
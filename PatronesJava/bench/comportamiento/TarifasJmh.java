@@ -0,0 +1,67 @@
+package comportamiento;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH — versión de BenchmarkTarifas: update() en bucle vs las APIs por lote de RepriceService.
+ * Resultados en ns por viaje.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TarifasJmh {
+    static final int VIAJES = 100_000;
+
+    private final double[] km = new double[VIAJES], tarifas = new double[VIAJES];
+    private final byte[] codigos = new byte[VIAJES];
+    private final String[] texto = new String[VIAJES];
+    private final long[] centavos = new long[VIAJES];
+    private final RepriceService reprice = new RepriceService();
+    private PrintStream consola;
+
+    @Setup
+    public void preparar() {
+        Random r = new Random(42);
+        for (int i = 0; i < VIAJES; i++) {
+            km[i] = 0.5 + r.nextDouble() * 30; codigos[i] = (byte) r.nextInt(3);
+            texto[i] = NivelDemanda.deCodigo(codigos[i]).texto();
+        }
+        consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void restaurar() { System.setOut(consola); }
+
+    @Benchmark @OperationsPerInvocation(VIAJES)
+    public void updateEnBucle() { for (int i = 0; i < VIAJES; i++) reprice.update(texto[i]); }
+
+    @Benchmark @OperationsPerInvocation(VIAJES)
+    public void tarifasSecuencial(Blackhole bh) { RepriceService.tarifas(km, codigos, tarifas, 0, VIAJES); bh.consume(tarifas); }
+
+    @Benchmark @OperationsPerInvocation(VIAJES)
+    public void tarifasForkJoin(Blackhole bh) { RepriceService.tarifas(km, codigos, tarifas); bh.consume(tarifas); }
+
+    @Benchmark @OperationsPerInvocation(VIAJES)
+    public void tarifasCentavosForkJoin(Blackhole bh) { RepriceService.tarifasCentavos(km, codigos, centavos); bh.consume(centavos); }
+}
@@ -0,0 +1,52 @@
+package creacional;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH — siguiente(prefijo) con 1, 2, 4 y todos los hilos disponibles.
+ * "multi" es GeneradorIdsMulti (synchronized); "concurrente" es GeneradorIdsConcurrente, como referencia.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneradorIdsJmh {
+    @Param({"multi", "concurrente"})
+    public String impl;
+
+    private UnaryOperator<String> generador;
+
+    @Setup
+    public void preparar() {
+        if (impl.equals("multi")) { GeneradorIdsMulti g = GeneradorIdsMulti.getInstance(); generador = g::siguiente; }
+        else { GeneradorIdsConcurrente g = GeneradorIdsConcurrente.getInstance(); generador = g::siguiente; }
+    }
+
+    @Benchmark @Threads(1)
+    public String siguiente1Hilo() { return generador.apply("TICKET"); }
+
+    @Benchmark @Threads(2)
+    public String siguiente2Hilos() { return generador.apply("TICKET"); }
+
+    @Benchmark @Threads(4)
+    public String siguiente4Hilos() { return generador.apply("TICKET"); }
+
+    @Benchmark @Threads(Threads.MAX)
+    public String siguienteMaxHilos() { return generador.apply("TICKET"); }
+}
@@ -0,0 +1,44 @@
+package estructural;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** JMH — pay() de cada adaptador, con clientes sin latencia simulada: mide solo la adaptación. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentGatewayJmh {
+    @Param({"stripe", "paypal", "bank"})
+    public String proveedor;
+
+    private PaymentGateway gw;
+
+    @Setup
+    public void preparar() {
+        switch (proveedor) {
+            case "stripe": gw = new StripeAdapter(); break;
+            case "paypal": gw = new PaypalAdapter(); break;
+            default: gw = new BankAdapter();
+        }
+    }
+
+    @Benchmark
+    public String pay() throws Exception { return gw.pay(25.0, "USD"); }
+
+    @Benchmark
+    public String payMinor() throws Exception { return gw.payMinor(2_500, "USD"); }
+}
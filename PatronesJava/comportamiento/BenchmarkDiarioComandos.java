@@ -0,0 +1,80 @@
+package comportamiento;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark — Comandos/s del Invocador con DiarioComandos según el tamaño del group commit (Java)
+ * Para cada grupo (1 = un fsync por comando) corre la misma mezcla de
+ * crear/mover/eliminar/undo sobre un directorio nuevo. Después reabre el
+ * último directorio y mide la recuperación (snapshot + cola del log).
+ * Ejecutar:
+ *   javac comportamiento/*.java soporte/*.java
+ *   java comportamiento.BenchmarkDiarioComandos [comandos] [directorio]
+ */
+public class BenchmarkDiarioComandos {
+
+    static void mezcla(Invocador inv, SistemaArchivos fs, int comandos, String contenido) {
+        for (int i = 0; i < comandos; i++) {
+            String p = "/datos/" + (i >> 2);
+            switch (i & 3) {
+                case 0: inv.run(new ComandoCrear(fs, p, contenido)); break;
+                case 1: inv.run(new ComandoMover(fs, p, p + ".bak")); break;
+                case 2: inv.undo(); break;                                // vuelve a p
+                default: if ((i & 4) == 0) inv.run(new ComandoEliminar(fs, p)); else inv.redo();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int comandos = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Path base = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("diario");
+        String contenido = "x".repeat(200);
+        int[] grupos = {1, 8, 64, 512};
+
+        System.out.println("=== Benchmark: Invocador + WAL, " + comandos + " comandos ===");
+        System.out.printf("%-8s %14s %10s%n", "grupo", "comandos/s", "fsyncs");
+        Path ultimo = null;
+        Map<String,String> esperado = null; int undoEsperado = 0;
+        for (int g : grupos) {
+            Path dir = base.resolve("grupo-" + g);
+            borrar(dir);
+            DiarioComandos.Config cfg = new DiarioComandos.Config().grupo(g).esperaMaxMs(1_000).snapshotCada(comandos / 3 + 1);
+            long t0 = System.nanoTime();
+            String estado;
+            try (DiarioComandos d = DiarioComandos.abrir(dir, cfg)) {
+                mezcla(d.invocador(), d.sistema(), comandos, contenido);
+                d.sincronizar();
+                estado = d.estado();
+                esperado = d.sistema().listar(); undoEsperado = d.invocador().undo.size();
+            }
+            double s = (System.nanoTime() - t0) / 1e9;
+            System.out.printf("%-8d %14.0f %10s%n", g, comandos / s, estado.replaceAll(".*fsyncs=(\\d+).*", "$1"));
+            ultimo = dir;
+        }
+
+        System.out.println("\n=== Recuperación de " + ultimo.getFileName() + " ===");
+        try (Stream<Path> archivos = Files.list(ultimo)) {
+            archivos.sorted().forEach(p -> System.out.println("  " + p.getFileName()));
+        }
+        long t0 = System.nanoTime();
+        try (DiarioComandos d = DiarioComandos.abrir(ultimo, new DiarioComandos.Config())) {
+            System.out.printf("Recuperado en %.1f ms: %d archivos, undo=%d, redo=%d (%s)%n",
+                (System.nanoTime() - t0) / 1e6, d.sistema().files.size(), d.invocador().undo.size(), d.invocador().redo.size(),
+                esperado.equals(d.sistema().listar()) && undoEsperado == d.invocador().undo.size() ? "coincide" : "DIFIERE");
+            System.out.println("Undo tras reiniciar: " + d.invocador().undo());
+        }
+        if (args.length < 2) borrar(base);
+    }
+
+    static void borrar(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) s.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package comportamiento;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Benchmark — Historial de undo acotado del Invocador (Java)
+ * Borra N archivos grandes (cada borrado retiene el contenido para poder
+ * deshacerse) con tres presupuestos: sin límite, maxBytes desalojando y
+ * maxBytes derramando a disco. Muestra el heap retenido, el tiempo y cuántos
+ * borrados se pudieron deshacer con el contenido intacto. Al final repite
+ * borrar-todo/deshacer-todo sobre el derrame para mostrar que la compactación
+ * mantiene acotado el temporal.
+ * Ejecutar:
+ *   javac comportamiento/*.java soporte/*.java
+ *   java comportamiento.BenchmarkHistorialUndo [archivos] [KiB por archivo] [MiB de presupuesto]
+ */
+public class BenchmarkHistorialUndo {
+
+    static String contenido(int i, int kib) {
+        char[] c = new char[kib * 512];   // 512 chars UTF-16 = 1 KiB de heap
+        Arrays.fill(c, (char) ('a' + i % 26));
+        return i + ":" + new String(c);
+    }
+
+    static long heapUsado() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int archivos = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int kib = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        long presupuesto = (args.length > 2 ? Long.parseLong(args[2]) : 8) << 20;
+        Path tmp = Files.createTempDirectory("undo");
+
+        System.out.printf("=== Benchmark: borrar %d archivos de %d KiB y deshacer (presupuesto %d MiB) ===%n", archivos, kib, presupuesto >> 20);
+        System.out.printf("%-12s %12s %10s %12s%n", "modo", "heap MiB", "ms", "deshechos");
+        String[] modos = {"sin límite", "desalojar", "derramar"};
+        for (String modo : modos) {
+            Invocador.Limites l = new Invocador.Limites();
+            if (!modo.equals("sin límite")) l.maxBytes(presupuesto);
+            if (modo.equals("derramar")) l.derramarEn(tmp);
+            long base = heapUsado();   // tras borrar, el store queda vacío: lo que sobra es el historial
+            SistemaArchivos fs = new SistemaArchivos();
+            for (int i = 0; i < archivos; i++) fs.escribir("/f/" + i, contenido(i, kib));
+            try (Invocador inv = new Invocador(l)) {
+                long t0 = System.nanoTime();
+                for (int i = 0; i < archivos; i++) inv.run(new ComandoEliminar(fs, "/f/" + i));
+                double ms = (System.nanoTime() - t0) / 1e6;
+                long retenido = heapUsado() - base;
+                String historial = inv.historial();
+                int intactos = 0;
+                while (!inv.undo.isEmpty()) inv.undo();
+                for (int i = 0; i < archivos; i++)
+                    if (fs.existe("/f/" + i) && fs.leer("/f/" + i).equals(contenido(i, kib))) intactos++;
+                System.out.printf("%-12s %12.1f %10.1f %12d%n", modo, retenido / 1048576.0, ms, intactos);
+                System.out.println("             " + historial);
+            }
+        }
+
+        System.out.println("\n=== Derrame: 10 rondas de borrar todo y deshacer todo ===");
+        Invocador.Limites l = new Invocador.Limites().maxBytes(presupuesto).derramarEn(tmp).compactarDesde(presupuesto);
+        SistemaArchivos fs = new SistemaArchivos();
+        for (int i = 0; i < archivos; i++) fs.escribir("/f/" + i, contenido(i, kib));
+        try (Invocador inv = new Invocador(l)) {
+            for (int ronda = 1; ronda <= 10; ronda++) {
+                for (int i = 0; i < archivos; i++) inv.run(new ComandoEliminar(fs, "/f/" + i));
+                while (!inv.undo.isEmpty()) inv.undo();
+                if (ronda % 3 == 1 || ronda == 10) System.out.println("ronda " + ronda + ": " + inv.historial());
+            }
+        }
+        Files.deleteIfExists(tmp);
+    }
+}
@@ -0,0 +1,79 @@
+package comportamiento;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark — Importación masiva: Invocador.run por operación vs un ComandoLote (Java)
+ * Crea N archivos y mueve la mitad, sin y con DiarioComandos. Después muestra
+ * que un lote con una operación inválida al final no deja nada aplicado y que
+ * un solo undo revierte el lote entero.
+ * Ejecutar:
+ *   javac comportamiento/*.java soporte/*.java
+ *   java comportamiento.BenchmarkLoteComandos [operaciones]
+ */
+public class BenchmarkLoteComandos {
+
+    static double porOperacion(Invocador inv, SistemaArchivos fs, int n) {
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) inv.run(new ComandoCrear(fs, "/import/" + i, "dato"));
+        for (int i = 0; i < n; i += 2) inv.run(new ComandoMover(fs, "/import/" + i, "/archivo/" + i));
+        return (System.nanoTime() - t0) / 1e6;
+    }
+
+    static double enLote(Invocador inv, SistemaArchivos fs, int n) {
+        long t0 = System.nanoTime();
+        ComandoLote lote = new ComandoLote(fs);
+        for (int i = 0; i < n; i++) lote.crear("/import/" + i, "dato");
+        for (int i = 0; i < n; i += 2) lote.mover("/import/" + i, "/archivo/" + i);
+        inv.run(lote);
+        return (System.nanoTime() - t0) / 1e6;
+    }
+
+    interface Caso { double correr(Invocador inv, SistemaArchivos fs, int n); }
+
+    static void medir(String nombre, Caso caso, int n, boolean conDiario) throws IOException {
+        for (int calentamiento = 0; calentamiento < 3; calentamiento++) caso.correr(new Invocador(), new SistemaArchivos(), n);
+        double ms;
+        int entradas;
+        if (conDiario) {
+            Path dir = Files.createTempDirectory("lote");
+            try (DiarioComandos d = DiarioComandos.abrir(dir, new DiarioComandos.Config())) {
+                ms = caso.correr(d.invocador(), d.sistema(), n);
+                d.sincronizar();
+                entradas = d.invocador().undo.size();
+            } finally {
+                BenchmarkDiarioComandos.borrar(dir);
+            }
+        } else {
+            Invocador inv = new Invocador();
+            ms = caso.correr(inv, new SistemaArchivos(), n);
+            entradas = inv.undo.size();
+        }
+        System.out.printf("%-24s %-10s %10.1f %14d%n", nombre, conDiario ? "WAL" : "memoria", ms, entradas);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        System.out.println("=== Benchmark: " + n + " creaciones + " + (n / 2) + " movimientos ===");
+        System.out.printf("%-24s %-10s %10s %14s%n", "modo", "store", "ms", "entradas undo");
+        for (boolean wal : new boolean[]{false, true}) {
+            medir("run() por operación", BenchmarkLoteComandos::porOperacion, n, wal);
+            medir("ComandoLote", BenchmarkLoteComandos::enLote, n, wal);
+        }
+
+        System.out.println("\n=== Atomicidad ===");
+        SistemaArchivos fs = new SistemaArchivos();
+        Invocador inv = new Invocador();
+        inv.run(new ComandoCrear(fs, "/existente", "x"));
+        ComandoLote malo = new ComandoLote(fs).crear("/a", "1").mover("/a", "/b").crear("/existente", "choca");
+        try { inv.run(malo); }
+        catch (IllegalStateException e) { System.out.println(e.getMessage()); }
+        System.out.println("Tras el lote inválido: " + fs.listar().keySet());
+        System.out.println(inv.run(new ComandoLote(fs).crear("/a", "1").mover("/a", "/b").eliminar("/existente")));
+        System.out.println("Aplicado: " + fs.listar().keySet());
+        System.out.println(inv.undo());
+        System.out.println("Tras un undo: " + fs.listar() + " | " + inv.historial());
+    }
+}
@@ -0,0 +1,49 @@
+package comportamiento;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Benchmark — Market.setDemanda en ráfagas: debounce DESCARTAR vs COALESCER (Java)
+ * Una ráfaga de actualizaciones muy seguidas con ventana de 5 ms. Se mide
+ * cuántas actualizaciones/segundo acepta setDemanda y si el último nivel de la
+ * ráfaga llegó a los observers. La consola va a un stream nulo: se mide el
+ * costo de imprimir, no el de la terminal.
+ * Ejecutar:
+ *   javac comportamiento/*.java soporte/*.java
+ *   java comportamiento.BenchmarkMarketDebounce [actualizaciones]
+ */
+public class BenchmarkMarketDebounce {
+    private static final String[] NIVELES = {"alta", "media", "baja"};
+
+    static void medir(Market.ModoDebounce modo, int actualizaciones, PrintStream consola) throws InterruptedException {
+        AtomicReference<String> ultimoVisto = new AtomicReference<>();
+        Market m = new Market(0.005, modo, null);
+        m.attach(ultimoVisto::set);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < actualizaciones; i++) m.setDemanda(NIVELES[i % NIVELES.length]);
+        double porSegundo = actualizaciones / ((System.nanoTime() - t0) / 1e9);
+        Thread.sleep(20);   // deja cerrar la última ventana
+        String esperado = NIVELES[(actualizaciones - 1) % NIVELES.length];
+        consola.printf("%-10s %14.0f act/s  entregados=%-6d descartados=%-9d coalescidos=%-9d último=%s%n",
+            modo, porSegundo, m.entregados(), m.descartados(), m.coalescidos(),
+            esperado.equals(ultimoVisto.get()) ? "entregado" : "PERDIDO");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int actualizaciones = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        PrintStream consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            consola.println("=== Benchmark: ráfaga de " + actualizaciones + " actualizaciones, ventana 5 ms ===");
+            for (int ronda = 0; ronda < 2; ronda++) {   // la primera ronda es calentamiento
+                if (ronda == 1) consola.println("------------------------------------------------------------");
+                medir(Market.ModoDebounce.DESCARTAR, actualizaciones, consola);
+                medir(Market.ModoDebounce.COALESCER, actualizaciones, consola);
+            }
+        } finally {
+            System.setOut(consola);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package comportamiento;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark — MotorDemandaZonas: actualizaciones de zona por segundo (Java)
+ * P hilos productores publican niveles aleatorios (precalculados) sobre Z
+ * zonas; se mide desde el arranque hasta que los shards procesaron todo.
+ * Ejecutar:
+ *   javac comportamiento/*.java soporte/*.java
+ *   java comportamiento.BenchmarkMotorDemanda [zonas] [productores] [shards] [actualizacionesPorProductor]
+ */
+public class BenchmarkMotorDemanda {
+    public static void main(String[] args) throws InterruptedException {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int zonas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int productores = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(1, cpus / 2);
+        int shards = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(1, cpus / 2);
+        int porProductor = args.length > 3 ? Integer.parseInt(args[3]) : 5_000_000;
+
+        int[][] zonasPre = new int[productores][1 << 16]; byte[][] nivelesPre = new byte[productores][1 << 16];
+        for (int p = 0; p < productores; p++) {
+            Random r = new Random(p);
+            for (int i = 0; i < zonasPre[p].length; i++) { zonasPre[p][i] = r.nextInt(zonas); nivelesPre[p][i] = (byte) r.nextInt(3); }
+        }
+
+        System.out.println("=== Benchmark: MotorDemandaZonas ===");
+        System.out.printf("zonas=%d productores=%d shards=%d actualizaciones=%d%n", zonas, productores, shards, (long) productores * porProductor);
+        for (int ronda = 0; ronda < 3; ronda++) {
+            LongAdder zonasEntregadas = new LongAdder();
+            MotorDemandaZonas motor = new MotorDemandaZonas(zonas, shards, 1 << 16);
+            try {
+                motor.suscribir((zs, ns, n) -> zonasEntregadas.add(n));
+                motor.iniciar();
+                CountDownLatch inicio = new CountDownLatch(1), fin = new CountDownLatch(productores);
+                for (int p = 0; p < productores; p++) {
+                    final int[] zs = zonasPre[p]; final byte[] ns = nivelesPre[p];
+                    new Thread(() -> {
+                        try { inicio.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                        for (int i = 0; i < porProductor; i++) motor.publicar(zs[i & 0xFFFF], ns[i & 0xFFFF]);
+                        fin.countDown();
+                    }).start();
+                }
+                long t0 = System.nanoTime();
+                inicio.countDown();
+                fin.await();
+                motor.close();   // espera a que los shards vacíen sus rings
+                double seg = (System.nanoTime() - t0) / 1e9;
+                System.out.printf("%s %,14.0f act/s  lotes=%,d  zonas entregadas=%,d%n", ronda == 0 ? "(calent.)" : "ronda " + ronda + "  ",
+                    motor.procesados() / seg, motor.lotes(), zonasEntregadas.sum());
+            } finally {
+                motor.close();
+            }
+        }
+    }
+}
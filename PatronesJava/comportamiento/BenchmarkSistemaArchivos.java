@@ -0,0 +1,81 @@
+package comportamiento;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark — Listado de carpeta y mover concurrente en SistemaArchivos (Java)
+ * 1) Listar "/logs/2026/03/" en un almacén grande: listar() copia todo el
+ *    mapa; carpeta() es una vista por rango que solo recorre esa carpeta.
+ * 2) Varios hilos mueven archivos ida y vuelta entre dos carpetas sobre
+ *    SistemaArchivosConcurrente; al final no se perdió ni duplicó ninguno.
+ * Ejecutar:
+ *   javac comportamiento/*.java soporte/*.java
+ *   java comportamiento.BenchmarkSistemaArchivos [rutas] [hilos]
+ */
+public class BenchmarkSistemaArchivos {
+    private static long sumidero;
+
+    static double usPorListado(int rondas, Runnable r) {
+        for (int i = 0; i < Math.max(1, rondas / 3); i++) r.run();   // calentamiento
+        long t0 = System.nanoTime();
+        for (int i = 0; i < rondas; i++) r.run();
+        return (System.nanoTime() - t0) / 1e3 / rondas;
+    }
+
+    static void poblar(SistemaArchivos fs, int rutas) {
+        for (int i = 0; i < rutas; i++)
+            fs.escribir(String.format("/logs/%04d/%02d/app-%07d.log", 2020 + i % 7, 1 + (i / 7) % 12, i), "x");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int rutas = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        String carpeta = "/logs/2026/03/";
+
+        System.out.println("=== Benchmark: listado de " + carpeta + " entre " + rutas + " rutas (µs/listado) ===");
+        for (SistemaArchivos fs : new SistemaArchivos[]{ new SistemaArchivos(), new SistemaArchivosConcurrente() }) {
+            poblar(fs, rutas);
+            String nombre = fs.getClass().getSimpleName();
+            System.out.printf("%-28s %-12s %12.1f%n", nombre, "listar()", usPorListado(5, () -> {
+                for (Map.Entry<String, String> e : fs.listar().entrySet())
+                    if (e.getKey().startsWith(carpeta)) sumidero++;
+            }));
+            System.out.printf("%-28s %-12s %12.1f%n", nombre, "carpeta()", usPorListado(200, () -> {
+                for (String ruta : fs.carpeta(carpeta).keySet()) sumidero += ruta.length();
+            }));
+        }
+
+        System.out.println("\n=== Mover concurrente: " + hilos + " hilos ===");
+        SistemaArchivosConcurrente fs = new SistemaArchivosConcurrente();
+        int archivos = 1_000, movimientos = 200_000;
+        for (int i = 0; i < archivos; i++) fs.escribir("/a/" + i, "dato" + i);
+        AtomicLong fallidos = new AtomicLong();
+        List<Thread> ts = new ArrayList<>();
+        long t0 = System.nanoTime();
+        for (int h = 0; h < hilos; h++) {
+            int semilla = h;
+            Thread t = new Thread(() -> {
+                for (int i = 0; i < movimientos / hilos; i++) {
+                    int f = (i * 31 + semilla * 7) % archivos;
+                    try {
+                        if (fs.existe("/a/" + f)) fs.mover("/a/" + f, "/b/" + f);
+                        else fs.mover("/b/" + f, "/a/" + f);
+                    } catch (IllegalStateException e) {
+                        fallidos.incrementAndGet();   // otro hilo lo movió primero: esperado
+                    }
+                }
+            });
+            ts.add(t);
+            t.start();
+        }
+        for (Thread t : ts) t.join();
+        double ms = (System.nanoTime() - t0) / 1e6;
+        int enA = fs.carpeta("/a/").size(), enB = fs.carpeta("/b/").size();
+        System.out.printf("%d movimientos en %.1f ms (%d perdieron la carrera)%n", movimientos, ms, fallidos.get());
+        System.out.printf("/a/=%d /b/=%d total=%d %s%n", enA, enB, enA + enB, enA + enB == archivos ? "OK" : "INCONSISTENTE");
+        System.out.println("(sumidero " + sumidero + ")");
+    }
+}
@@ -0,0 +1,57 @@
+package comportamiento;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Benchmark — Reprecio en lote vs RepriceService.update en bucle (Java)
+ * Un lote de viajes (km + código de demanda). "update en bucle" es lo que
+ * había: un evento por viaje con comparación de Strings y String.format (su
+ * salida va a un stream nulo). El lote usa tarifas()/tarifasCentavos().
+ * Ejecutar:
+ *   javac comportamiento/*.java soporte/*.java
+ *   java comportamiento.BenchmarkTarifas [viajes]
+ */
+public class BenchmarkTarifas {
+    private static double sumidero;
+
+    interface Caso { void correr(); }
+
+    static double nsPorViaje(int viajes, int rondas, Caso c) {
+        for (int i = 0; i < Math.max(1, rondas / 3); i++) c.correr();   // calentamiento
+        long t0 = System.nanoTime();
+        for (int i = 0; i < rondas; i++) c.correr();
+        return (System.nanoTime() - t0) / ((double) viajes * rondas);
+    }
+
+    public static void main(String[] args) {
+        int viajes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        double[] km = new double[viajes]; byte[] codigos = new byte[viajes];
+        Random r = new Random(42);
+        for (int i = 0; i < viajes; i++) { km[i] = 0.5 + r.nextDouble() * 30; codigos[i] = (byte) r.nextInt(3); }
+        String[] texto = new String[viajes];
+        for (int i = 0; i < viajes; i++) texto[i] = NivelDemanda.deCodigo(codigos[i]).texto();
+        double[] tarifas = new double[viajes]; long[] centavos = new long[viajes];
+        RepriceService reprice = new RepriceService();
+
+        PrintStream consola = System.out;
+        System.out.println("=== Benchmark: reprecio de " + viajes + " viajes (ns/viaje) ===");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        double bucle;
+        try {
+            int muestra = Math.min(viajes, 200_000);
+            bucle = nsPorViaje(muestra, 3, () -> { for (int i = 0; i < muestra; i++) reprice.update(texto[i]); });
+        } finally {
+            System.setOut(consola);
+        }
+        System.out.printf("%-36s %10.2f%n", "update() en bucle", bucle);
+        System.out.printf("%-36s %10.2f%n", "tarifas() secuencial",
+            nsPorViaje(viajes, 20, () -> { RepriceService.tarifas(km, codigos, tarifas, 0, viajes); sumidero += tarifas[viajes - 1]; }));
+        System.out.printf("%-36s %10.2f%n", "tarifas() fork-join",
+            nsPorViaje(viajes, 20, () -> { RepriceService.tarifas(km, codigos, tarifas); sumidero += tarifas[viajes - 1]; }));
+        System.out.printf("%-36s %10.2f%n", "tarifasCentavos() fork-join",
+            nsPorViaje(viajes, 20, () -> { RepriceService.tarifasCentavos(km, codigos, centavos); sumidero += centavos[viajes - 1]; }));
+        System.out.println("(sumidero " + (long) sumidero + ")");
+    }
+}
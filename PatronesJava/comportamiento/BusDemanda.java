@@ -0,0 +1,132 @@
+package comportamiento;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import soporte.Hilos;
+
+/**
+ * Bus asíncrono de eventos de demanda para Market.
+ * publicar() solo deja el evento en una cola de entrada acotada: O(1) sin
+ * importar cuántos observers haya. Un hilo repartidor lo copia al buzón
+ * acotado de cada observer y cada observer tiene su propio worker, así uno
+ * lento o que falla (BadObserver) no retrasa a los demás ni a quien publica.
+ * Si un buzón está lleno el evento se descarta para ese observer y se cuenta.
+ * Un update que supera timeoutMs se cuenta como timeout (el worker no se
+ * interrumpe: solo se atrasa su propio buzón).
+ */
+class BusDemanda implements AutoCloseable {
+
+    /** Contadores de un observer. */
+    static final class Estadisticas {
+        final int pendientes; final long entregados, fallidos, timeouts, descartados;
+        Estadisticas(Suscripcion s) {
+            pendientes = s.buzon.size(); entregados = s.entregados.sum(); fallidos = s.fallidos.sum();
+            timeouts = s.timeouts.sum(); descartados = s.descartados.sum();
+        }
+        @Override public String toString() {
+            return "pendientes=" + pendientes + " entregados=" + entregados + " fallidos=" + fallidos
+                + " timeouts=" + timeouts + " descartados=" + descartados;
+        }
+    }
+
+    private final class Suscripcion implements Runnable {
+        final Observador o; final BlockingQueue<String> buzon; final Thread worker; volatile boolean activa = true;
+        final LongAdder entregados = new LongAdder(), fallidos = new LongAdder(), timeouts = new LongAdder(), descartados = new LongAdder();
+        Suscripcion(Observador o) {
+            this.o = o; this.buzon = new ArrayBlockingQueue<>(capacidadBuzon);
+            this.worker = hilos.newThread(this);
+            worker.start();
+        }
+        public void run() {
+            try {
+                while (activa || !buzon.isEmpty()) {
+                    String nivel = buzon.poll(100, TimeUnit.MILLISECONDS);
+                    if (nivel == null) continue;
+                    long t0 = System.nanoTime();
+                    try { Market.despachar(o, nivel); entregados.increment(); }
+                    catch (Exception e) { fallidos.increment(); }
+                    if (System.nanoTime() - t0 > timeoutNs) timeouts.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final int capacidadBuzon; private final long timeoutNs; private final ThreadFactory hilos;
+    private final BlockingQueue<String> entrada;
+    private final CopyOnWriteArrayList<Suscripcion> subs = new CopyOnWriteArrayList<>();
+    private final LongAdder publicados = new LongAdder(), rechazados = new LongAdder();
+    private final Thread repartidor;
+    private volatile boolean cerrado;
+
+    BusDemanda() { this(1024, 64, 200); }
+    BusDemanda(int capacidadEntrada, int capacidadBuzon, long timeoutMs) {
+        this.capacidadBuzon = capacidadBuzon; this.timeoutNs = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.hilos = Hilos.virtuales("observer");
+        this.entrada = new ArrayBlockingQueue<>(capacidadEntrada);
+        this.repartidor = Hilos.plataforma("bus-demanda").newThread(this::repartir);
+        repartidor.start();
+    }
+
+    /** false si la cola de entrada está llena (el evento se pierde y se cuenta como rechazado). */
+    boolean publicar(String nivel) {
+        if (!cerrado && entrada.offer(nivel)) { publicados.increment(); return true; }
+        rechazados.increment();
+        return false;
+    }
+
+    /**
+     * Buscar y agregar van bajo el mismo monitor: dos attach simultáneos no crean dos buzones.
+     * Como el attach de Market, compara con equals. Cerrado el bus, lanza IllegalStateException.
+     */
+    synchronized void suscribir(Observador o) {
+        if (cerrado) throw new IllegalStateException("Bus de demanda cerrado");
+        for (Suscripcion s : subs) if (s.o.equals(o)) return;
+        subs.add(new Suscripcion(o));
+    }
+
+    synchronized void desuscribir(Observador o) {
+        for (Suscripcion s : subs) if (s.o.equals(o)) { s.activa = false; subs.remove(s); }
+    }
+
+    private void repartir() {
+        try {
+            while (!cerrado || !entrada.isEmpty()) {
+                String nivel = entrada.poll(100, TimeUnit.MILLISECONDS);
+                if (nivel == null) continue;
+                for (Suscripcion s : subs) if (!s.buzon.offer(nivel)) s.descartados.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    Map<String, Estadisticas> metricas() {
+        Map<String, Estadisticas> m = new TreeMap<>();
+        for (Suscripcion s : subs) m.put(s.o.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(s.o)), new Estadisticas(s));
+        return m;
+    }
+    long publicados() { return publicados.sum(); }
+    long rechazados() { return rechazados.sum(); }
+
+    /** Deja de aceptar eventos, reparte lo pendiente y espera a que cada observer vacíe su buzón. */
+    @Override
+    public void close() {
+        synchronized (this) { cerrado = true; }   // bajo el monitor de suscribir: no entra un buzón tras esto
+        try {
+            repartidor.join();
+            for (Suscripcion s : subs) s.activa = false;
+            for (Suscripcion s : subs) s.worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
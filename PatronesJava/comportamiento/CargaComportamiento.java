@@ -0,0 +1,44 @@
+package comportamiento;
+
+import soporte.Escenario;
+
+/**
+ * Escenarios de carga de los patrones de comportamiento, para el modo headless de Main (ver soporte.Carga).
+ */
+public final class CargaComportamiento {
+    private CargaComportamiento() { }
+
+    /** Observer: setDemanda sin debounce sobre los tres servicios de la demo. */
+    public static Escenario observer() {
+        Market market = new Market(0);
+        market.attach(new RepriceService());
+        market.attach(new FleetService());
+        market.attach(new EtaService());
+        String[] niveles = {"baja", "media", "alta"};
+        return hilo -> {
+            int[] i = {hilo};
+            return () -> market.setDemanda(niveles[i[0]++ % niveles.length]);
+        };
+    }
+
+    /**
+     * Command: cada hilo tiene su Invocador sobre un SistemaArchivosConcurrente compartido y repite
+     * crear, mover, undo, undo en su carpeta, así el store no crece durante la corrida.
+     */
+    public static Escenario comandos() {
+        SistemaArchivos fs = new SistemaArchivosConcurrente();
+        for (int i = 0; i < 10_000; i++) fs.escribir("/base/" + i, "contenido " + i);
+        return hilo -> {
+            Invocador inv = new Invocador();
+            String p = "/h" + hilo + "/archivo", q = "/h" + hilo + "/movido";
+            int[] paso = {0};
+            return () -> {
+                switch (paso[0]++ & 3) {
+                    case 0: inv.run(new ComandoCrear(fs, p, "dato")); break;
+                    case 1: inv.run(new ComandoMover(fs, p, q)); break;
+                    default: inv.undo();
+                }
+            };
+        };
+    }
+}
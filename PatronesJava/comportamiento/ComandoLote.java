@@ -0,0 +1,142 @@
+package comportamiento;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Comando compuesto (macro): un lote de crear/eliminar/mover que se aplica como unidad.
+ * ejecutar() primero valida todo el lote contra el store más un overlay con el
+ * efecto de las operaciones anteriores del mismo lote; si algo no cuadra lanza
+ * sin haber tocado nada. Después aplica en una pasada y, si una operación falla
+ * igual (otro hilo cambió el store), revierte las ya aplicadas. En el Invocador
+ * ocupa una sola entrada de undo, y deshacer() revierte el lote completo.
+ * Las operaciones se guardan en arreglos paralelos, sin un objeto por operación.
+ */
+class ComandoLote implements Comando {
+    static final byte CREAR = 1, ELIMINAR = 2, MOVER = 3;
+
+    private final SistemaArchivos fs;
+    /** CREAR: a=path b=contenido · ELIMINAR: a=path · MOVER: a=src b=dst. */
+    byte[] tipos = new byte[16]; String[] a = new String[16], b = new String[16]; int n;
+    /** Contenido de cada ELIMINAR (null en el resto) mientras el lote está aplicado. */
+    Respaldo[] respaldos;
+    boolean ejecutado;
+
+    ComandoLote(SistemaArchivos fs){ this.fs = fs; }
+
+    ComandoLote crear(String path, String contenido){ return agregar(CREAR, path, contenido); }
+    ComandoLote eliminar(String path){ return agregar(ELIMINAR, path, null); }
+    ComandoLote mover(String src, String dst){ return agregar(MOVER, src, dst); }
+
+    ComandoLote agregar(byte tipo, String x, String y) {
+        if (ejecutado) throw new IllegalStateException("Lote ya ejecutado");
+        if (n == tipos.length) { tipos = Arrays.copyOf(tipos, n * 2); a = Arrays.copyOf(a, n * 2); b = Arrays.copyOf(b, n * 2); }
+        tipos[n] = tipo; a[n] = x; b[n] = y; n++;
+        return this;
+    }
+
+    int tamano(){ return n; }
+
+    public String ejecutar() {
+        validar();
+        Respaldo[] r = new Respaldo[n];
+        int i = 0;
+        try {
+            for (; i < n; i++) {
+                switch (tipos[i]) {
+                    case CREAR: if (!fs.crear(a[i], b[i])) throw new IllegalStateException("Lote: ya existe " + a[i]); break;
+                    case ELIMINAR: r[i] = new Respaldo(fs.leer(a[i])); fs.eliminar(a[i]); break;
+                    default: fs.mover(a[i], b[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            revertir(i, r);
+            throw e;
+        }
+        respaldos = r; ejecutado = true;
+        return "Lote: " + n + " operaciones";
+    }
+
+    public String deshacer() {
+        if (!ejecutado) return "Undo Lote: nada que deshacer";
+        revertir(n, respaldos);
+        liberar(); ejecutado = false;
+        return "Undo Lote: " + n + " operaciones revertidas";
+    }
+
+    /** Revierte en orden inverso las primeras k operaciones; si algo falla a mitad, las vuelve a aplicar. */
+    private void revertir(int k, Respaldo[] r) {
+        int i = k - 1;
+        try {
+            for (; i >= 0; i--) {
+                switch (tipos[i]) {
+                    case CREAR: fs.eliminar(a[i]); break;
+                    case ELIMINAR: fs.escribir(a[i], r[i].leer()); break;
+                    default: fs.mover(b[i], a[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (int j = i + 1; j < k; j++) {
+                switch (tipos[j]) {
+                    case CREAR: fs.escribir(a[j], b[j]); break;
+                    case ELIMINAR: fs.eliminar(a[j]); break;
+                    default: fs.mover(a[j], b[j]);
+                }
+            }
+            throw new IllegalStateException("Lote: no se pudo revertir la operación " + i + ", quedó aplicado", e);
+        }
+    }
+
+    /** Simula el lote sobre un overlay path -> existe; lanza en la primera operación inválida. */
+    private void validar() {
+        if (ejecutado) throw new IllegalStateException("Lote ya ejecutado");
+        Map<String, Boolean> overlay = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            switch (tipos[i]) {
+                case CREAR:
+                    if (existe(overlay, a[i])) throw invalida(i, "ya existe " + a[i]);
+                    overlay.put(a[i], Boolean.TRUE);
+                    break;
+                case ELIMINAR:
+                    if (!existe(overlay, a[i])) throw invalida(i, "no existe " + a[i]);
+                    overlay.put(a[i], Boolean.FALSE);
+                    break;
+                default:
+                    if (!existe(overlay, a[i])) throw invalida(i, "no existe " + a[i]);
+                    if (existe(overlay, b[i])) throw invalida(i, "ya existe " + b[i]);
+                    overlay.put(a[i], Boolean.FALSE);
+                    overlay.put(b[i], Boolean.TRUE);
+            }
+        }
+    }
+
+    private boolean existe(Map<String, Boolean> overlay, String path) {
+        Boolean v = overlay.get(path);
+        return v != null ? v : fs.existe(path);
+    }
+
+    private static IllegalStateException invalida(int i, String motivo) {
+        return new IllegalStateException("Lote: operación " + i + " inválida, " + motivo + " (no se aplicó nada)");
+    }
+
+    public long bytesRespaldo() {
+        if (respaldos == null) return 0;
+        long total = 0;
+        for (Respaldo r : respaldos) if (r != null) total += r.bytesEnMemoria();
+        return total;
+    }
+
+    public void derramar(Respaldo.Derrame d) {
+        if (respaldos != null) for (Respaldo r : respaldos) if (r != null) r.derramar(d);
+    }
+
+    public void mudar(Respaldo.Derrame viejo, Respaldo.Derrame nuevo) {
+        if (respaldos != null) for (Respaldo r : respaldos) if (r != null) r.mudar(viejo, nuevo);
+    }
+
+    public void liberar() {
+        if (respaldos != null) for (Respaldo r : respaldos) if (r != null) r.liberar();
+        respaldos = null;
+    }
+}
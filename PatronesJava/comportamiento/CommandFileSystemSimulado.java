@@ -1,10 +1,16 @@
 package comportamiento;
 
+import java.nio.file.Path;
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.TreeMap;
 
+import soporte.Eventos;
+import soporte.Metricas;
+
 /**
  * Command — Sistema de archivos simulado (Java)
  * Equivalente del Python "command_filesystem_simulado.py".
@@ -14,9 +20,13 @@ import java.util.TreeMap;
  */
 // ===== Receiver =====
 class SistemaArchivos {
-    private final Map<String,String> files = new TreeMap<>();
+    final NavigableMap<String,String> files;
+    SistemaArchivos(){ this(new TreeMap<>()); }
+    SistemaArchivos(NavigableMap<String,String> files){ this.files = files; }
     boolean existe(String path){ return files.containsKey(path); }
     void escribir(String path,String contenido){ files.put(path, contenido); }
+    /** Crea solo si la ruta está libre, en un paso; false si ya existía (ver SistemaArchivosConcurrente). */
+    boolean crear(String path,String contenido){ return files.putIfAbsent(path, contenido) == null; }
     String leer(String path){ if(!existe(path)) throw new IllegalStateException("No existe: "+path); return files.get(path); }
     void eliminar(String path){ if(!existe(path)) throw new IllegalStateException("No existe: "+path); files.remove(path); }
     void mover(String src,String dst){
@@ -25,40 +35,216 @@ class SistemaArchivos {
         files.put(dst, files.get(src)); files.remove(src);
     }
     Map<String,String> listar(){ return new TreeMap<>(files); }
+    /**
+     * Vista ordenada y perezosa de las rutas bajo prefijo (p.ej. "/logs/2026/"), subcarpetas incluidas.
+     * No copia nada: recorrerla cuesta lo que tenga esa carpeta, no todo el almacén.
+     */
+    NavigableMap<String,String> carpeta(String prefijo){
+        return Collections.unmodifiableNavigableMap(files.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false));
+    }
 }
 // ===== Command =====
-interface Comando { String ejecutar(); String deshacer(); }
+interface Comando {
+    String ejecutar(); String deshacer();
+    /** Heap que retiene solo para poder deshacerse (lo que cuenta el presupuesto del Invocador). */
+    default long bytesRespaldo(){ return 0; }
+    /** Pasa ese contenido al derrame; se relee al deshacer. */
+    default void derramar(Respaldo.Derrame d){ }
+    /** Compactación del derrame: mueve a nuevo lo que tenga en viejo. */
+    default void mudar(Respaldo.Derrame viejo, Respaldo.Derrame nuevo){ }
+    /** El Invocador lo saca del historial: suelta sus respaldos. */
+    default void liberar(){ }
+}
 // ===== Commands concretos =====
 class ComandoCrear implements Comando {
-    private final SistemaArchivos fs; private final String path; private final String contenido; private boolean ejecutado=false;
+    private final SistemaArchivos fs; final String path; final String contenido; boolean ejecutado=false;
     ComandoCrear(SistemaArchivos fs,String path,String contenido){ this.fs=fs; this.path=path; this.contenido=contenido; }
-    public String ejecutar(){ if(fs.existe(path)) throw new IllegalStateException("Create: ya existe "+path); fs.escribir(path, contenido); ejecutado=true; return "Create: "+path; }
-    public String deshacer(){ if(ejecutado && fs.existe(path)){ fs.eliminar(path); return "Undo Create: "+path+" eliminado"; } return "Undo Create: nada que deshacer"; }
+    public String ejecutar(){ if(!fs.crear(path, contenido)) throw new IllegalStateException("Create: ya existe "+path); ejecutado=true; return "Create: "+path; }
+    public String deshacer(){
+        if(ejecutado){
+            try { fs.eliminar(path); return "Undo Create: "+path+" eliminado"; }
+            catch(IllegalStateException yaNoEsta){ /* lo borró alguien fuera del historial */ }
+        }
+        return "Undo Create: nada que deshacer";
+    }
 }
 class ComandoEliminar implements Comando {
-    private final SistemaArchivos fs; private final String path; private String respaldo=null; private boolean tenia=false;
+    private final SistemaArchivos fs; final String path; Respaldo respaldo=null; boolean tenia=false;
     ComandoEliminar(SistemaArchivos fs,String path){ this.fs=fs; this.path=path; }
-    public String ejecutar(){ if(!fs.existe(path)) throw new IllegalStateException("Delete: no existe "+path); respaldo=fs.leer(path); tenia=true; fs.eliminar(path); return "Delete: "+path; }
-    public String deshacer(){ if(tenia && !fs.existe(path)){ fs.escribir(path, respaldo); return "Undo Delete: "+path+" restaurado"; } return "Undo Delete: nada que deshacer"; }
+    public String ejecutar(){ if(!fs.existe(path)) throw new IllegalStateException("Delete: no existe "+path); Respaldo r=new Respaldo(fs.leer(path)); fs.eliminar(path); liberar(); respaldo=r; tenia=true; return "Delete: "+path; }
+    public String deshacer(){ if(tenia && !fs.existe(path)){ fs.escribir(path, respaldo.leer()); liberar(); return "Undo Delete: "+path+" restaurado"; } return "Undo Delete: nada que deshacer"; }
+    public long bytesRespaldo(){ return respaldo==null ? 0 : respaldo.bytesEnMemoria(); }
+    public void derramar(Respaldo.Derrame d){ if(respaldo!=null) respaldo.derramar(d); }
+    public void mudar(Respaldo.Derrame viejo, Respaldo.Derrame nuevo){ if(respaldo!=null) respaldo.mudar(viejo, nuevo); }
+    public void liberar(){ if(respaldo!=null){ respaldo.liberar(); respaldo=null; } }
 }
 class ComandoMover implements Comando {
-    private final SistemaArchivos fs; private final String src; private final String dst; private boolean movido=false; private String snap=null;
+    private final SistemaArchivos fs; final String src; final String dst; boolean movido=false;
     ComandoMover(SistemaArchivos fs,String src,String dst){ this.fs=fs; this.src=src; this.dst=dst; }
-    public String ejecutar(){ if(!fs.existe(src)) throw new IllegalStateException("Move: no existe "+src); if(fs.existe(dst)) throw new IllegalStateException("Move: ya existe "+dst); snap=fs.leer(src); fs.mover(src,dst); movido=true; return "Move: "+src+" -> "+dst; }
+    /** mover() comprueba origen y destino en el mismo paso que mueve: aquí no se pregunta antes. */
+    public String ejecutar(){
+        try { fs.mover(src,dst); }
+        catch(IllegalStateException e){ throw new IllegalStateException("Move: "+e.getMessage(), e); }
+        movido=true; return "Move: "+src+" -> "+dst;
+    }
+    /** Deshacer es mover de vuelta: no guarda copia del contenido. Si dst ya no existe o src está ocupado (cambios fuera del historial), no hay qué revertir. */
     public String deshacer(){
         if(!movido) return "Undo Move: nada que deshacer";
-        if(fs.existe(dst)){ fs.mover(dst, src); }
-        else { if(fs.existe(src)) return "Undo Move: src ocupado, no se pudo revertir"; fs.escribir(src, snap); }
+        try { fs.mover(dst, src); }
+        catch(IllegalStateException e){ return "Undo Move: "+e.getMessage()+", no se pudo revertir"; }
         return "Undo Move: "+dst+" -> "+src;
     }
 }
 // ===== Invoker =====
-class Invocador {
-    private final Deque<Comando> undo = new ArrayDeque<>();
-    private final Deque<Comando> redo = new ArrayDeque<>();
-    String run(Comando c){ String out = c.ejecutar(); undo.push(c); redo.clear(); return out; }
-    String undo(){ if(undo.isEmpty()) return "Nada que deshacer"; Comando c = undo.pop(); String out = c.deshacer(); redo.push(c); return out; }
-    String redo(){ if(redo.isEmpty()) return "Nada que rehacer"; Comando c = redo.pop(); String out = c.ejecutar(); undo.push(c); return out; }
+class Invocador implements AutoCloseable {
+    /**
+     * Presupuesto del historial de undo. Pasado maxEntradas se desalojan las entradas más viejas.
+     * Pasado maxBytes (respaldos retenidos en el heap) también se desalojan, salvo que haya
+     * directorio de derrame: entonces los respaldos más viejos pasan a un temporal y se releen al deshacer.
+     * El temporal es de solo-anexar; lo que ocupaban los respaldos ya deshechos o desalojados queda
+     * muerto hasta que supera compactarDesde (64 MiB por defecto) y además a los bytes vivos: ahí se
+     * reescriben solo los vivos en un temporal nuevo. Así el archivo no pasa de 2 × vivos + compactarDesde.
+     */
+    static final class Limites {
+        int maxEntradas = Integer.MAX_VALUE; long maxBytes = Long.MAX_VALUE; Path derrame; long compactarDesde = 64L << 20;
+        Limites maxEntradas(int n){ if(n <= 0) throw new IllegalArgumentException("maxEntradas > 0"); maxEntradas = n; return this; }
+        Limites maxBytes(long b){ if(b < 0) throw new IllegalArgumentException("maxBytes >= 0"); maxBytes = b; return this; }
+        Limites derramarEn(Path dir){ derrame = dir; return this; }
+        Limites compactarDesde(long b){ if(b < 0) throw new IllegalArgumentException("compactarDesde >= 0"); compactarDesde = b; return this; }
+    }
+
+    final Deque<Comando> undo = new ArrayDeque<>();
+    final Deque<Comando> redo = new ArrayDeque<>();
+    /** Entradas de undo con respaldo aún en el heap, de la más nueva a la más vieja (subconjunto ordenado de undo). */
+    private final Deque<Comando> enMemoria = new ArrayDeque<>();
+    private final DiarioComandos diario; private final Limites limites;
+    private Respaldo.Derrame derrame;
+    private long bytesUndo, desalojados, derramados, compactaciones;
+    Invocador(){ this(new Limites(), null); }
+    /** Con diario, cada run/undo/redo se anota en su WAL antes de entrar a las pilas; si el log falla, se revierte (ver DiarioComandos). */
+    Invocador(DiarioComandos diario){ this(new Limites(), diario); }
+    Invocador(Limites limites){ this(limites, null); }
+    Invocador(Limites limites, DiarioComandos diario){ this.limites = limites; this.diario = diario; }
+    String run(Comando c){
+        Eventos.Comando e = new Eventos.Comando(); e.begin();
+        long t0 = System.nanoTime(); boolean ok = false;
+        try {
+            if(diario!=null) diario.validar(c);
+            String out = c.ejecutar();
+            if(diario!=null){
+                try { diario.anotarRun(c); }
+                catch(RuntimeException noAnotado){ c.deshacer(); throw noAnotado; }   // sin registro en el log, no ocurrió
+            }
+            apilar(c);
+            for(Comando r : redo) r.liberar();
+            redo.clear();
+            if(diario!=null) diario.confirmar();
+            ok = true;
+            return out;
+        } finally { medir(e, "run", latRun, c, t0, ok); }
+    }
+    /** Si deshacer lanza o el log no lo acepta, el comando vuelve a undo y no se anota nada. */
+    String undo(){
+        if(undo.isEmpty()) return "Nada que deshacer";
+        Comando c = undo.pop();
+        if(enMemoria.peekFirst()==c) enMemoria.pollFirst();
+        long b = c.bytesRespaldo();
+        bytesUndo -= b;
+        Eventos.Comando e = new Eventos.Comando(); e.begin();
+        long t0 = System.nanoTime(); boolean ok = false;
+        try {
+            String out = c.deshacer();
+            if(diario!=null){
+                try { diario.anotar(DiarioComandos.UNDO); }
+                catch(RuntimeException noAnotado){ c.ejecutar(); throw noAnotado; }
+            }
+            redo.push(c); compactarSiConviene();
+            if(diario!=null) diario.confirmar();
+            ok = true;
+            return out;
+        } finally {
+            if(!ok){ undo.push(c); b = c.bytesRespaldo(); if(b > 0){ enMemoria.push(c); bytesUndo += b; } }
+            medir(e, "undo", latUndo, c, t0, ok);
+        }
+    }
+    /** Igual que undo(): ante un fallo el comando queda en redo y el log no cambia. */
+    String redo(){
+        if(redo.isEmpty()) return "Nada que rehacer";
+        Comando c = redo.pop();
+        Eventos.Comando e = new Eventos.Comando(); e.begin();
+        long t0 = System.nanoTime(); boolean ok = false;
+        try {
+            String out = c.ejecutar();
+            if(diario!=null){
+                try { diario.anotar(DiarioComandos.REDO); }
+                catch(RuntimeException noAnotado){ c.deshacer(); throw noAnotado; }
+            }
+            apilar(c);
+            if(diario!=null) diario.confirmar();
+            ok = true;
+            return out;
+        } finally {
+            if(!ok) redo.push(c);
+            medir(e, "redo", latRedo, c, t0, ok);
+        }
+    }
+
+    private static final Metricas.Contador errores = Metricas.contador("comandos.error");
+    private static final Metricas.Latencia latRun = Metricas.latencia("comandos.run"), latUndo = Metricas.latencia("comandos.undo"), latRedo = Metricas.latencia("comandos.redo");
+    /** Latencia por operación (comandos.run/undo/redo), fallos en comandos.error y el evento JFR. */
+    private static void medir(Eventos.Comando e, String op, Metricas.Latencia latencia, Comando c, long t0, boolean ok){
+        latencia.registrar(System.nanoTime() - t0);
+        if(!ok) errores.incrementar();
+        if(e.shouldCommit()){ e.tipo = c.getClass().getSimpleName(); e.operacion = op; e.ok = ok; e.commit(); }
+    }
+    private void apilar(Comando c){
+        undo.push(c);
+        long b = c.bytesRespaldo();
+        if(b > 0){ enMemoria.push(c); bytesUndo += b; }
+        ajustar();
+    }
+    /** Recalcula la contabilidad tras llenar undo por fuera de run/redo (p.ej. al cargar un snapshot). */
+    void reindexar(){
+        enMemoria.clear(); bytesUndo = 0;
+        for(Comando c : undo){ long b = c.bytesRespaldo(); if(b > 0){ enMemoria.addLast(c); bytesUndo += b; } }
+        ajustar();
+    }
+    /** Deja el historial dentro de los límites: primero por entradas, después por bytes. */
+    private void ajustar(){
+        while(undo.size() > limites.maxEntradas) desalojar();
+        while(bytesUndo > limites.maxBytes && !enMemoria.isEmpty()){
+            if(limites.derrame == null){ desalojar(); continue; }
+            Comando c = enMemoria.pollLast();
+            long antes = c.bytesRespaldo();
+            if(derrame == null) derrame = new Respaldo.Derrame(limites.derrame);
+            c.derramar(derrame);
+            bytesUndo -= antes - c.bytesRespaldo(); derramados++;
+        }
+        compactarSiConviene();
+    }
+    private void desalojar(){
+        Comando c = undo.pollLast();
+        if(enMemoria.peekLast()==c) enMemoria.pollLast();
+        bytesUndo -= c.bytesRespaldo(); desalojados++;
+        c.liberar();
+    }
+    /** Reescribe los respaldos vivos en un derrame nuevo si el muerto pasó compactarDesde y a los vivos (ver Limites). */
+    private void compactarSiConviene(){
+        if(derrame == null) return;
+        long muertos = derrame.muertos();
+        if(muertos <= limites.compactarDesde || muertos <= derrame.vivos()) return;
+        Respaldo.Derrame nuevo = new Respaldo.Derrame(limites.derrame);
+        for(Comando c : undo) c.mudar(derrame, nuevo);
+        for(Comando c : redo) c.mudar(derrame, nuevo);
+        derrame.close(); derrame = nuevo; compactaciones++;
+    }
+    String historial(){
+        return String.format("undo=%d redo=%d enMemoria=%d (%d KiB) derramados=%d (%d KiB en disco, %d vivos) compactaciones=%d desalojados=%d",
+            undo.size(), redo.size(), enMemoria.size(), bytesUndo / 1024, derramados, derrame == null ? 0 : derrame.tamano() / 1024,
+            derrame == null ? 0 : derrame.vivos() / 1024, compactaciones, desalojados);
+    }
+    /** Borra el archivo de derrame; los respaldos que estaban ahí ya no se pueden deshacer. */
+    @Override public void close(){ if(derrame != null){ derrame.close(); derrame = null; } }
 }
 // ===== Helpers =====
 class Console {
@@ -0,0 +1,449 @@
+package comportamiento;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import soporte.Hilos;
+
+/**
+ * Write-ahead log + snapshots para SistemaArchivos e Invocador (Java)
+ * Cada run/undo/redo del Invocador se anota como un registro en un FileChannel
+ * de solo-anexar. Group commit: los registros se juntan en un buffer y se hace
+ * un único force() cada {@code grupo} registros o cada {@code esperaMaxMs}, lo
+ * que llegue antes; una caída pierde a lo sumo esa ventana (sincronizar() la
+ * cierra a pedido). El log se parte en segmentos de {@code tamSegmento} bytes y
+ * cada {@code snapshotCada} registros se escribe un snapshot completo (archivos
+ * + pilas undo/redo con el estado de cada comando) y se borran los segmentos
+ * que cubre: recuperar cuesta cargar los datos más reproducir la cola corta
+ * del log, no toda la historia.
+ *
+ * Registro: [largo int][crc32 int][tipo byte][comando si es RUN]. Un registro
+ * cortado o con crc inválido al final del último segmento (caída a mitad de
+ * escritura) se trunca al recuperar; uno roto en un segmento intermedio hace
+ * fallar abrir() sin modificar ningún archivo.
+ * Archivos: wal-N.log; snapshot-N.snap = estado completo previo a wal-N.log.
+ */
+class DiarioComandos implements AutoCloseable {
+    static final byte RUN = 1, UNDO = 2, REDO = 3;
+    private static final byte CREAR = 1, ELIMINAR = 2, MOVER = 3, LOTE = 4;
+    private static final int MAGIC_SNAPSHOT = 0x534E5031; // "SNP1"
+
+    /** Configuración del diario; por defecto, fsync cada 64 registros o 10 ms. */
+    static final class Config {
+        int grupo = 64; long esperaMaxMs = 10; long tamSegmento = 64L << 20; long snapshotCada = 100_000;
+        Supplier<SistemaArchivos> sistema = SistemaArchivos::new;
+        Invocador.Limites limites = new Invocador.Limites();
+        Config grupo(int n){ if (n <= 0) throw new IllegalArgumentException("grupo > 0"); grupo = n; return this; }
+        Config esperaMaxMs(long ms){ if (ms <= 0) throw new IllegalArgumentException("esperaMaxMs > 0"); esperaMaxMs = ms; return this; }
+        Config tamSegmento(long bytes){ if (bytes <= 0) throw new IllegalArgumentException("tamSegmento > 0"); tamSegmento = bytes; return this; }
+        Config snapshotCada(long registros){ if (registros <= 0) throw new IllegalArgumentException("snapshotCada > 0"); snapshotCada = registros; return this; }
+        Config sistema(Supplier<SistemaArchivos> s){ sistema = s; return this; }
+        /** Presupuesto del historial; usar los mismos al reabrir para que la reproducción coincida. */
+        Config limites(Invocador.Limites l){ limites = l; return this; }
+    }
+
+    /** ByteArrayOutputStream que deja leer su arreglo sin copiarlo. */
+    private static final class Bytes extends ByteArrayOutputStream {
+        Bytes(){ super(256); }
+        byte[] arreglo(){ return buf; }
+    }
+
+    private final Path dir; private final Config config;
+    private final SistemaArchivos fs; private final Invocador inv;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+    private final Bytes bytes = new Bytes();
+    private final DataOutputStream datos = new DataOutputStream(bytes);
+    private final CRC32 crc = new CRC32();
+    private ScheduledExecutorService temporizador;
+    private FileChannel segmento;
+    private long numSegmento, tamActual, desdeSnapshot, registros, fsyncs, snapshots;
+    private int sinForzar;
+    private boolean recuperando = true, cerrado;
+    private IOException errorFondo, roto;
+
+    private DiarioComandos(Path dir, Config config) {
+        this.dir = dir; this.config = config;
+        this.fs = config.sistema.get();
+        this.inv = new Invocador(config.limites, this);
+    }
+
+    /** Abre (o crea) el diario en dir: carga el último snapshot y reproduce el log que le sigue. */
+    static DiarioComandos abrir(Path dir, Config config) throws IOException {
+        Files.createDirectories(dir);
+        DiarioComandos d = new DiarioComandos(dir, config);
+        d.recuperar();
+        d.temporizador = Executors.newSingleThreadScheduledExecutor(Hilos.plataforma("wal"));
+        d.temporizador.scheduleWithFixedDelay(d::forzarPendientes, config.esperaMaxMs, config.esperaMaxMs, TimeUnit.MILLISECONDS);
+        return d;
+    }
+
+    /** Store recuperado; mutarlo fuera del Invocador no queda en el log. */
+    SistemaArchivos sistema(){ return fs; }
+    /** Invocador con el historial recuperado, que anota en este diario. */
+    Invocador invocador(){ return inv; }
+
+    void validar(Comando c) {
+        if (!(c instanceof ComandoCrear || c instanceof ComandoEliminar || c instanceof ComandoMover || c instanceof ComandoLote))
+            throw new IllegalArgumentException("Comando sin formato en el diario: " + c.getClass().getSimpleName());
+    }
+
+    /**
+     * Anota un run antes de que el Invocador lo apile; si lanza, el Invocador lo revierte.
+     * Un error de E/S deja el diario roto: el registro pudo o no llegar a disco, así que
+     * no se aceptan más anotaciones hasta reabrir (y recuperar lo que sí quedó).
+     */
+    synchronized void anotarRun(Comando c) {
+        if (recuperando) return;
+        try {
+            revisarRoto();
+            bytes.reset();
+            datos.writeByte(RUN);
+            escribirComando(datos, c, false);
+            cerrarRegistro();
+        } catch (IOException e) { roto = e; throw new UncheckedIOException(e); }
+    }
+
+    synchronized void anotar(byte tipo) {
+        if (recuperando) return;
+        try {
+            revisarRoto();
+            bytes.reset();
+            datos.writeByte(tipo);
+            cerrarRegistro();
+        } catch (IOException e) { roto = e; throw new UncheckedIOException(e); }
+    }
+
+    /**
+     * Lo llama el Invocador después de aplicar a sus pilas lo que anotó: recién ahí el snapshot
+     * incluye ese comando. Un fallo del snapshot o de la rotación no deshace nada (el registro ya
+     * está en el log); se informa en la próxima anotación o en sincronizar().
+     */
+    synchronized void confirmar() {
+        if (recuperando || roto != null) return;
+        try {
+            if (desdeSnapshot >= config.snapshotCada) snapshot();
+            else if (tamActual >= config.tamSegmento) rodar();
+        } catch (IOException e) { if (errorFondo == null) errorFondo = e; }
+    }
+
+    private void revisarRoto() throws IOException {
+        if (roto != null) throw new IOException("Diario inutilizable tras un error de escritura; reabrir para recuperar", roto);
+    }
+
+    /** Fuerza a disco todo lo anotado hasta ahora. */
+    synchronized void sincronizar() throws IOException {
+        revisarRoto();
+        revisarFondo();
+        forzar();
+    }
+
+    private void cerrarRegistro() throws IOException {
+        revisarFondo();
+        int n = bytes.size();
+        crc.reset();
+        crc.update(bytes.arreglo(), 0, n);
+        if (buffer.remaining() < n + 8) volcar();
+        if (buffer.remaining() < n + 8) {   // registro más grande que el buffer: va directo
+            ByteBuffer cab = ByteBuffer.allocate(8).putInt(n).putInt((int) crc.getValue());
+            cab.flip();
+            escribirTodo(cab);
+            escribirTodo(ByteBuffer.wrap(bytes.arreglo(), 0, n));
+        } else {
+            buffer.putInt(n).putInt((int) crc.getValue()).put(bytes.arreglo(), 0, n);
+        }
+        tamActual += n + 8; registros++; sinForzar++; desdeSnapshot++;
+        if (sinForzar >= config.grupo) forzar();
+    }
+
+    private void volcar() throws IOException {
+        buffer.flip();
+        escribirTodo(buffer);
+        buffer.clear();
+    }
+
+    private void escribirTodo(ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) segmento.write(b);
+    }
+
+    private void forzar() throws IOException {
+        if (sinForzar == 0 && buffer.position() == 0) return;
+        volcar();
+        segmento.force(false);
+        sinForzar = 0; fsyncs++;
+    }
+
+    /** Tarea del temporizador: cierra el grupo abierto si pasó esperaMaxMs sin llenarse. */
+    private synchronized void forzarPendientes() {
+        if (cerrado || sinForzar == 0) return;
+        try { forzar(); }
+        catch (IOException e) { if (errorFondo == null) errorFondo = e; }
+    }
+
+    private void revisarFondo() throws IOException {
+        IOException e = errorFondo;
+        if (e != null) { errorFondo = null; throw e; }
+    }
+
+    private void rodar() throws IOException {
+        forzar();
+        segmento.close();
+        segmento = abrirSegmento(++numSegmento);
+        tamActual = 0;
+    }
+
+    /** Snapshot en el borde de un segmento nuevo; recién cuando quedó durable se borra lo que cubre. */
+    private void snapshot() throws IOException {
+        rodar();
+        Path tmp = dir.resolve(nombre("snapshot-", numSegmento, ".tmp"));
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CheckedOutputStream check = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(check);
+            out.writeInt(MAGIC_SNAPSHOT);
+            out.writeInt(fs.files.size());
+            for (Map.Entry<String,String> e : fs.files.entrySet()) { escribirTexto(out, e.getKey()); escribirTexto(out, e.getValue()); }
+            out.writeInt(inv.undo.size());
+            for (Comando c : inv.undo) escribirComando(out, c, true);
+            out.writeInt(inv.redo.size());
+            for (Comando c : inv.redo) escribirComando(out, c, true);
+            out.flush();
+            out.writeLong(check.getChecksum().getValue());
+            out.flush();
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(nombre("snapshot-", numSegmento, ".snap")), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        desdeSnapshot = 0; snapshots++;
+        compactar(numSegmento);
+    }
+
+    private void compactar(long hasta) throws IOException {
+        for (Map.Entry<Long,Path> e : listar("wal-", ".log").headMap(hasta).entrySet()) Files.deleteIfExists(e.getValue());
+        for (Map.Entry<Long,Path> e : listar("snapshot-", ".snap").headMap(hasta).entrySet()) Files.deleteIfExists(e.getValue());
+    }
+
+    private void recuperar() throws IOException {
+        for (Path p : listar("snapshot-", ".tmp").values()) Files.deleteIfExists(p);   // snapshot a medio escribir
+        TreeMap<Long,Path> snaps = listar("snapshot-", ".snap"), segs = listar("wal-", ".log");
+        long desde = 0;
+        if (!snaps.isEmpty()) { desde = snaps.lastKey(); cargarSnapshot(snaps.lastEntry().getValue()); }
+        Iterator<Map.Entry<Long,Path>> it = segs.tailMap(desde).entrySet().iterator();
+        while (it.hasNext()) {
+            Path p = it.next().getValue();
+            reproducir(p, !it.hasNext());
+        }
+        numSegmento = Math.max(desde, segs.isEmpty() ? 0 : segs.lastKey() + 1);
+        segmento = abrirSegmento(numSegmento);
+        tamActual = segmento.size();
+        recuperando = false;
+    }
+
+    private void cargarSnapshot(Path p) throws IOException {
+        try (InputStreamCheck in = new InputStreamCheck(p)) {
+            DataInputStream d = in.datos;
+            if (d.readInt() != MAGIC_SNAPSHOT) throw new IOException("No es un snapshot: " + p);
+            for (int i = d.readInt(); i > 0; i--) fs.escribir(leerTexto(d), leerTexto(d));
+            for (int i = d.readInt(); i > 0; i--) inv.undo.addLast(leerComando(d, true));
+            for (int i = d.readInt(); i > 0; i--) inv.redo.addLast(leerComando(d, true));
+            inv.reindexar();
+            long esperado = in.check.getChecksum().getValue();
+            if (d.readLong() != esperado) throw new IOException("Snapshot con crc inválido: " + p);
+        }
+    }
+
+    /** Flujo del snapshot con su crc; el crc se toma antes de leer el campo final. */
+    private static final class InputStreamCheck implements AutoCloseable {
+        final CheckedInputStream check; final DataInputStream datos;
+        InputStreamCheck(Path p) throws IOException {
+            check = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(p), 1 << 16), new CRC32());
+            datos = new DataInputStream(check);
+        }
+        public void close() throws IOException { datos.close(); }
+    }
+
+    /**
+     * Reproduce un segmento. Un registro roto solo se trunca si es el último segmento (caída a
+     * mitad de escritura); en uno intermedio se lanza sin tocar el archivo, porque truncarlo haría
+     * que el próximo abrir reprodujera los segmentos siguientes sobre registros perdidos.
+     */
+    private void reproducir(Path p, boolean ultimo) throws IOException {
+        long valido = 0, tam = Files.size(p);
+        boolean completo = true;
+        byte[] reg = new byte[256];
+        CRC32 c = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(p), 1 << 16))) {
+            while (true) {
+                int n;
+                try { n = in.readInt(); } catch (EOFException fin) { break; }
+                try {
+                    int esperado = in.readInt();
+                    if (n <= 0 || n > tam) { completo = false; break; }
+                    if (reg.length < n) reg = new byte[Math.max(n, reg.length * 2)];
+                    in.readFully(reg, 0, n);
+                    c.reset();
+                    c.update(reg, 0, n);
+                    if ((int) c.getValue() != esperado) { completo = false; break; }
+                } catch (EOFException cortado) { completo = false; break; }
+                aplicar(new DataInputStream(new ByteArrayInputStream(reg, 0, n)));
+                valido += n + 8;
+            }
+        }
+        if (completo) return;
+        if (!ultimo) throw new IOException("Log corrupto antes del final: " + p + " (registro roto en el byte " + valido + ")");
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.WRITE)) { ch.truncate(valido); ch.force(true); }
+    }
+
+    private void aplicar(DataInput in) throws IOException {
+        byte tipo = in.readByte();
+        switch (tipo) {
+            case RUN: inv.run(leerComando(in, false)); break;
+            // el Invocador ya solo anota undo/redo exitosos; el catch tolera logs escritos antes de eso
+            case UNDO: try { inv.undo(); } catch (RuntimeException falloOriginal) { } break;
+            case REDO: try { inv.redo(); } catch (RuntimeException falloOriginal) { } break;
+            default: throw new IOException("Registro desconocido: " + tipo);
+        }
+        registros++; desdeSnapshot++;
+    }
+
+    /** Con estado: los campos que el comando capturó al ejecutarse (para el snapshot del historial). */
+    private static void escribirComando(DataOutput out, Comando c, boolean conEstado) throws IOException {
+        if (c instanceof ComandoCrear) {
+            ComandoCrear k = (ComandoCrear) c;
+            out.writeByte(CREAR); escribirTexto(out, k.path); escribirTexto(out, k.contenido);
+            if (conEstado) out.writeBoolean(k.ejecutado);
+        } else if (c instanceof ComandoEliminar) {
+            ComandoEliminar k = (ComandoEliminar) c;
+            out.writeByte(ELIMINAR); escribirTexto(out, k.path);
+            if (conEstado) { out.writeBoolean(k.tenia); escribirTexto(out, k.respaldo == null ? null : k.respaldo.leer()); }
+        } else if (c instanceof ComandoMover) {
+            ComandoMover k = (ComandoMover) c;
+            out.writeByte(MOVER); escribirTexto(out, k.src); escribirTexto(out, k.dst);
+            if (conEstado) out.writeBoolean(k.movido);
+        } else if (c instanceof ComandoLote) {   // un solo registro para todo el lote
+            ComandoLote k = (ComandoLote) c;
+            out.writeByte(LOTE); out.writeInt(k.n);
+            for (int i = 0; i < k.n; i++) { out.writeByte(k.tipos[i]); escribirTexto(out, k.a[i]); escribirTexto(out, k.b[i]); }
+            if (conEstado) {
+                out.writeBoolean(k.ejecutado);
+                if (k.ejecutado) for (int i = 0; i < k.n; i++) escribirTexto(out, k.respaldos[i] == null ? null : k.respaldos[i].leer());
+            }
+        } else {
+            throw new IllegalArgumentException("Comando sin formato en el diario: " + c.getClass().getSimpleName());
+        }
+    }
+
+    private Comando leerComando(DataInput in, boolean conEstado) throws IOException {
+        byte clase = in.readByte();
+        switch (clase) {
+            case CREAR: {
+                ComandoCrear k = new ComandoCrear(fs, leerTexto(in), leerTexto(in));
+                if (conEstado) k.ejecutado = in.readBoolean();
+                return k;
+            }
+            case ELIMINAR: {
+                ComandoEliminar k = new ComandoEliminar(fs, leerTexto(in));
+                if (conEstado) { k.tenia = in.readBoolean(); String r = leerTexto(in); k.respaldo = r == null ? null : new Respaldo(r); }
+                return k;
+            }
+            case MOVER: {
+                ComandoMover k = new ComandoMover(fs, leerTexto(in), leerTexto(in));
+                if (conEstado) k.movido = in.readBoolean();
+                return k;
+            }
+            case LOTE: {
+                ComandoLote k = new ComandoLote(fs);
+                for (int i = in.readInt(); i > 0; i--) k.agregar(in.readByte(), leerTexto(in), leerTexto(in));
+                if (conEstado && in.readBoolean()) {
+                    k.respaldos = new Respaldo[k.n];
+                    for (int i = 0; i < k.n; i++) { String r = leerTexto(in); if (r != null) k.respaldos[i] = new Respaldo(r); }
+                    k.ejecutado = true;
+                }
+                return k;
+            }
+            default: throw new IOException("Comando desconocido en el diario: " + clase);
+        }
+    }
+
+    /** [largo int][UTF-8]; largo -1 = null. Sin el tope de 64 KiB de writeUTF. */
+    private static void escribirTexto(DataOutput out, String s) throws IOException {
+        if (s == null) { out.writeInt(-1); return; }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String leerTexto(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) return null;
+        byte[] b = new byte[n];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private FileChannel abrirSegmento(long n) throws IOException {
+        return FileChannel.open(dir.resolve(nombre("wal-", n, ".log")),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static String nombre(String prefijo, long n, String sufijo) { return String.format("%s%016d%s", prefijo, n, sufijo); }
+
+    private TreeMap<Long,Path> listar(String prefijo, String sufijo) throws IOException {
+        TreeMap<Long,Path> m = new TreeMap<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, prefijo + "*" + sufijo)) {
+            for (Path p : ds) {
+                String f = p.getFileName().toString();
+                try { m.put(Long.parseLong(f.substring(prefijo.length(), f.length() - sufijo.length())), p); }
+                catch (NumberFormatException ajeno) { /* no es nuestro */ }
+            }
+        }
+        return m;
+    }
+
+    synchronized String estado() {
+        return String.format("segmento=%d registros=%d fsyncs=%d (%.1f registros/fsync) snapshots=%d desdeSnapshot=%d",
+            numSegmento, registros, fsyncs, fsyncs == 0 ? 0 : registros / (double) fsyncs, snapshots, desdeSnapshot);
+    }
+
+    /** Fuerza lo pendiente y cierra; no toma snapshot (el próximo abrir reproduce la cola). */
+    @Override
+    public void close() throws IOException {
+        if (temporizador != null) {
+            // sin interrumpir: un force() interrumpido cierra el FileChannel (ClosedByInterruptException)
+            temporizador.shutdown();
+            try { temporizador.awaitTermination(10, TimeUnit.SECONDS); }
+            catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        synchronized (this) {
+            if (cerrado) return;
+            cerrado = true;
+            try { revisarFondo(); forzar(); }
+            finally { segmento.close(); inv.close(); }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package comportamiento;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import soporte.Hilos;
+
+/**
+ * Motor de demanda multizona repartido en shards.
+ * Cada zona (0..zonas-1) pertenece al shard zona % shards. Cada shard tiene
+ * un ring buffer multi-productor de long (zona << 8 | código de nivel) y un
+ * único hilo consumidor que vacía lo publicado en lotes: dentro de un lote
+ * conserva solo el último nivel de cada zona y, si cambió, lo entrega a los
+ * observers en un único llamado por lote (arreglos zonas/niveles).
+ *
+ * Los observers se llaman desde el hilo de cada shard, a la vez: deben ser
+ * thread-safe y no guardar los arreglos recibidos (se reutilizan).
+ * Tras close(), publicar lanza IllegalStateException; close() se puede llamar
+ * más de una vez.
+ */
+class MotorDemandaZonas implements AutoCloseable {
+
+    /** Recibe un lote de zonas de un mismo shard; n es la cantidad válida de elementos. */
+    interface ObservadorZonas { void actualizar(int[] zonas, byte[] niveles, int n); }
+
+    private final class Shard implements Runnable {
+        private static final int CERRANDO = Integer.MIN_VALUE;
+        final int id; final long[] ring; final AtomicLongArray publicado; final int mascara;
+        final AtomicLong reservado = new AtomicLong(), consumido = new AtomicLong();
+        final byte[] niveles;                       // nivel actual por zona local (zona / shards)
+        final long[] marca; final int[] posicion;   // último lote que incluyó la zona local y su posición en él
+        final int[] zonasLote; final byte[] nivelesLote;
+        final LongAdder procesados = new LongAdder(), lotes = new LongAdder();
+        /** Bit alto: el shard está cerrando; resto: productores dentro de publicar(). */
+        final AtomicInteger estado = new AtomicInteger();
+        Thread hilo;
+
+        Shard(int id, int zonasLocales, int capacidad) {
+            this.id = id; this.ring = new long[capacidad]; this.mascara = capacidad - 1;
+            this.publicado = new AtomicLongArray(capacidad);
+            for (int i = 0; i < capacidad; i++) publicado.set(i, -1);
+            this.niveles = new byte[zonasLocales]; this.marca = new long[zonasLocales]; this.posicion = new int[zonasLocales];
+            this.zonasLote = new int[Math.min(zonasLocales, capacidad)]; this.nivelesLote = new byte[zonasLote.length];
+        }
+
+        void publicar(long valor) {
+            for (int e = estado.get(); ; e = estado.get()) {
+                if (e < 0) throw new IllegalStateException("Motor de demanda cerrado");
+                if (estado.compareAndSet(e, e + 1)) break;
+            }
+            try {
+                long seq = reservado.getAndIncrement();
+                for (int vueltas = 0; seq - consumido.get() >= ring.length; vueltas++) {   // ring lleno: esperar al consumidor
+                    if (vueltas < 100) Thread.onSpinWait(); else Thread.yield();
+                }
+                int i = (int) seq & mascara;
+                ring[i] = valor;
+                publicado.set(i, seq);   // publica: escritura volátil después del dato
+            } finally {
+                estado.decrementAndGet();
+            }
+        }
+
+        void cerrar() { estado.getAndUpdate(e -> e | CERRANDO); }
+
+        /** Cerrando y sin productores en curso: reservado ya no se mueve. */
+        private boolean cerrado() { return estado.get() == CERRANDO; }
+
+        public void run() {
+            // lote solo avanza cuando se consumió algo y es long: nunca vuelve a un valor ya usado en marca[]
+            long siguiente = 0, lote = 1; int ocioso = 0;
+            while (true) {
+                long s = siguiente, fin = siguiente + ring.length; int n = 0;
+                for (; s < fin && publicado.get((int) s & mascara) == s; s++) {
+                    long v = ring[(int) s & mascara];
+                    int zona = (int) (v >>> 8), local = zona / shards; byte nivel = (byte) v;
+                    if (marca[local] == lote) {                 // ya está en el lote: gana el último
+                        nivelesLote[posicion[local]] = nivel;
+                    } else if (niveles[local] != nivel) {
+                        marca[local] = lote; posicion[local] = n;
+                        zonasLote[n] = zona; nivelesLote[n++] = nivel;
+                    }
+                    niveles[local] = nivel;
+                }
+                if (s != siguiente) {
+                    procesados.add(s - siguiente);
+                    lote++;
+                    siguiente = s;
+                    consumido.set(s);
+                    if (n > 0) entregar(n);
+                    ocioso = 0;
+                } else if (cerrado()) {
+                    if (reservado.get() == siguiente) return;
+                } else if (++ocioso < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(50_000);
+                }
+            }
+        }
+
+        private void entregar(int n) {
+            lotes.increment();
+            for (ObservadorZonas o : observers) {
+                try { o.actualizar(zonasLote, nivelesLote, n); }
+                catch (RuntimeException e) { errores.increment(); }
+            }
+        }
+    }
+
+    private final int zonas, shards;
+    private final Shard[] porShard;
+    private final CopyOnWriteArrayList<ObservadorZonas> observers = new CopyOnWriteArrayList<>();
+    private final LongAdder errores = new LongAdder();
+
+    MotorDemandaZonas(int zonas) { this(zonas, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 1 << 16); }
+
+    /** capacidadRing debe ser potencia de dos. */
+    MotorDemandaZonas(int zonas, int shards, int capacidadRing) {
+        if (zonas <= 0 || zonas > (1 << 23)) throw new IllegalArgumentException("zonas fuera de rango: " + zonas);
+        if (shards <= 0 || Integer.bitCount(capacidadRing) != 1) throw new IllegalArgumentException("shards > 0 y capacidadRing potencia de 2");
+        this.zonas = zonas; this.shards = shards;
+        this.porShard = new Shard[shards];
+        for (int i = 0; i < shards; i++) porShard[i] = new Shard(i, (zonas + shards - 1) / shards, capacidadRing);
+    }
+
+    void suscribir(ObservadorZonas o) { observers.addIfAbsent(o); }
+
+    MotorDemandaZonas iniciar() {
+        ThreadFactory f = Hilos.plataforma("shard-demanda");
+        for (Shard s : porShard) { s.hilo = f.newThread(s); s.hilo.start(); }
+        return this;
+    }
+
+    void publicar(int zona, NivelDemanda nivel) { publicar(zona, nivel.codigo()); }
+
+    void publicar(int zona, byte codigo) {
+        if (zona < 0 || zona >= zonas) throw new IndexOutOfBoundsException("Zona " + zona);
+        porShard[zona % shards].publicar(((long) zona << 8) | (codigo & 0xFF));
+    }
+
+    /** Último nivel aplicado por el shard (puede ir detrás de lo publicado). */
+    NivelDemanda nivel(int zona) { return NivelDemanda.deCodigo(porShard[zona % shards].niveles[zona / shards]); }
+
+    long procesados() { long n = 0; for (Shard s : porShard) n += s.procesados.sum(); return n; }
+    long lotes() { long n = 0; for (Shard s : porShard) n += s.lotes.sum(); return n; }
+    long errores() { return errores.sum(); }
+
+    /** Rechaza nuevas publicaciones, vacía lo pendiente y detiene los hilos de los shards. Idempotente. */
+    @Override
+    public void close() {
+        for (Shard s : porShard) s.cerrar();
+        try {
+            for (Shard s : porShard) if (s.hilo != null) s.hilo.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
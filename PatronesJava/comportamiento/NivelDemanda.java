@@ -0,0 +1,27 @@
+package comportamiento;
+
+/**
+ * Nivel de demanda como código primitivo (0..2) en vez de "alta"/"media"/"baja".
+ * codigo() cabe en un byte, así los motores guardan niveles en byte[]; desde()
+ * y texto() hacen de puente con los observers que siguen usando String.
+ */
+enum NivelDemanda {
+    BAJA("baja"), MEDIA("media"), ALTA("alta");
+
+    private static final NivelDemanda[] POR_CODIGO = values();
+    private final String texto;
+
+    NivelDemanda(String texto) { this.texto = texto; }
+
+    byte codigo() { return (byte) ordinal(); }
+    String texto() { return texto; }
+
+    static NivelDemanda deCodigo(int codigo) { return POR_CODIGO[codigo]; }
+
+    /** Igual que los observers originales: lo que no es "alta" ni "media" cuenta como baja. */
+    static NivelDemanda desde(String nivel) {
+        if ("alta".equals(nivel)) return ALTA;
+        if ("media".equals(nivel)) return MEDIA;
+        return BAJA;
+    }
+}
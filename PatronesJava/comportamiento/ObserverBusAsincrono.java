@@ -0,0 +1,59 @@
+package comportamiento;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Observer — Market con bus asíncrono (Java)
+ * 1) Un observer lento y uno que falla ya no frenan a quien publica.
+ * 2) El costo de publicar no crece con la cantidad de observers.
+ * Ejecutar:
+ *   javac comportamiento/*.java soporte/*.java
+ *   java comportamiento.ObserverBusAsincrono
+ */
+public class ObserverBusAsincrono {
+    static final class Lento implements Observador {
+        public void update(String nivel) {
+            try { Thread.sleep(300); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+    }
+
+    /** Nanosegundos por setDemanda con n observers que solo cuentan; la consola se silencia mientras tanto. */
+    static double nsPorEvento(boolean asincrono, int observers, int eventos) {
+        LongAdder recibidos = new LongAdder();
+        PrintStream consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try (BusDemanda bus = asincrono ? new BusDemanda(eventos, eventos, 200) : null) {
+            Market m = new Market(0, bus);
+            for (int i = 0; i < observers; i++) m.attach(nivel -> recibidos.increment());
+            long t0 = System.nanoTime();
+            for (int i = 0; i < eventos; i++) m.setDemanda(i % 2 == 0 ? "alta" : "baja");
+            return (System.nanoTime() - t0) / (double) eventos;
+        } finally {
+            System.setOut(consola);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Observer — Market con bus asíncrono (Java) ===");
+        try (BusDemanda bus = new BusDemanda(1024, 4, 200)) {
+            Market market = new Market(0, bus);
+            market.attach(new RepriceService());
+            market.attach(new Lento());
+            market.attach(new BadObserver());
+            long t0 = System.nanoTime();
+            for (String nivel : new String[]{"alta", "media", "baja", "alta", "media", "baja", "alta"}) market.setDemanda(nivel);
+            System.out.printf("Publicar 7 eventos: %.2f ms (el observer lento tarda 300 ms por evento)%n", (System.nanoTime() - t0) / 1e6);
+            Thread.sleep(700);
+            bus.metricas().forEach((k, v) -> System.out.println("  " + k + " " + v));
+        }
+
+        System.out.println("------------------------------------------------------------");
+        System.out.printf("%-10s %14s %14s%n", "Observers", "síncrono ns/ev", "bus ns/ev");
+        for (int n : new int[]{1, 10, 100, 1000}) {
+            nsPorEvento(false, n, 2_000); nsPorEvento(true, n, 2_000);   // calentamiento
+            System.out.printf("%-10d %14.0f %14.0f%n", n, nsPorEvento(false, n, 5_000), nsPorEvento(true, n, 5_000));
+        }
+    }
+}
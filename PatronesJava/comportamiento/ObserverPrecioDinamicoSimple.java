@@ -1,7 +1,19 @@
 package comportamiento;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import soporte.Eventos;
+import soporte.Hilos;
+import soporte.Metricas;
+import soporte.Salida;
 
 /**
  * Observer — Precio dinámico de transporte (Java)
@@ -12,42 +24,169 @@ import java.util.List;
  */
 interface Observador { void update(String nivel); }
 
+/**
+ * Sujeto. La lista de observers es copy-on-write: registrar copia, notificar no.
+ * Con un BusDemanda la notificación es asíncrona (ver BusDemanda); sin él se
+ * llama a cada observer en el hilo de quien publica, como siempre.
+ *
+ * Debounce: DESCARTAR ignora los cambios dentro de la ventana (comportamiento
+ * original); COALESCER guarda solo el último nivel y lo entrega una vez al
+ * cerrar la ventana, así el nivel final de una ráfaga nunca se pierde.
+ */
 class Market {
-    private final List<Observador> obs = new ArrayList<>();
+    enum ModoDebounce { DESCARTAR, COALESCER }
+
+    /** Un único hilo daemon compartido para entregar los niveles coalescidos. */
+    private static final class Programador {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(Hilos.plataforma("market-debounce"));
+    }
+
+    private final CopyOnWriteArrayList<Observador> obs = new CopyOnWriteArrayList<>();
     private final long debounceMs;
-    private long lastTs = 0L;
+    private final ModoDebounce modo;
+    private final AtomicLong lastTs = new AtomicLong();
+    private final AtomicReference<String> pendiente = new AtomicReference<>();
+    private final LongAdder entregados = new LongAdder(), descartados = new LongAdder(), coalescidos = new LongAdder();
+    private final BusDemanda bus;
 
-    public Market(double debounceSeconds) {
+    public Market(double debounceSeconds) { this(debounceSeconds, null); }
+    public Market(double debounceSeconds, BusDemanda bus) { this(debounceSeconds, ModoDebounce.DESCARTAR, bus); }
+    public Market(double debounceSeconds, ModoDebounce modo, BusDemanda bus) {
         this.debounceMs = (long)(debounceSeconds * 1000);
+        this.modo = modo;
+        this.bus = bus;
     }
-    public void attach(Observador o){ if (!obs.contains(o)) obs.add(o); }
-    public void detach(Observador o){ obs.remove(o); }
+    public void attach(Observador o){ if (bus != null) bus.suscribir(o); else obs.addIfAbsent(o); }
+    public void detach(Observador o){ if (bus != null) bus.desuscribir(o); else obs.remove(o); }
 
     public void setDemanda(String nivel) {
-        long now = System.currentTimeMillis();
-        if (debounceMs > 0 && now - lastTs < debounceMs) {
-            System.out.println("Demanda: " + nivel + " - cambio ignorado por intervalo corto");
+        long now = System.currentTimeMillis(), last = lastTs.get();
+        if (debounceMs <= 0) { lastTs.set(now); notificar(nivel); return; }
+        boolean abierta = now - last < debounceMs;
+        if (modo == ModoDebounce.DESCARTAR) {
+            if (abierta || !lastTs.compareAndSet(last, now)) {
+                descartados.increment();   // sin log por descarte: en una ráfaga serían miles de líneas
+                return;
+            }
+            notificar(nivel);
             return;
         }
-        lastTs = now;
-        System.out.println("Demanda: " + nivel);
-        for (Observador o : new ArrayList<>(obs)) {
-            try { o.update(nivel); }
-            catch (Exception e) { System.out.println("Observer con error: " + o.getClass().getSimpleName() + " - " + e); }
+        if (!abierta && pendiente.get() == null && lastTs.compareAndSet(last, now)) { notificar(nivel); return; }
+        if (pendiente.getAndSet(nivel) != null) { coalescidos.increment(); return; }   // ya hay una entrega programada
+        long espera = Math.max(0, lastTs.get() + debounceMs - now);
+        Programador.INSTANCE.schedule(this::entregarPendiente, espera, TimeUnit.MILLISECONDS);
+    }
+
+    /** Cierre de ventana en modo COALESCER: entrega el último nivel recibido y abre una ventana nueva. */
+    private void entregarPendiente() {
+        lastTs.set(System.currentTimeMillis());
+        String nivel = pendiente.getAndSet(null);
+        if (nivel != null) notificar(nivel);
+    }
+
+    private void notificar(String nivel) {
+        entregados.increment();
+        if (Salida.activa()) System.out.println("Demanda: " + nivel);
+        if (bus != null) { bus.publicar(nivel); return; }
+        for (Observador o : obs) {
+            try { despachar(o, nivel); }
+            catch (Exception e) { if (Salida.activa()) System.out.println("Observer con error: " + o.getClass().getSimpleName() + " - " + e); }
+        }
+    }
+
+    private static final Metricas.Contador despachosOk = Metricas.contador("observers.ok"), despachosError = Metricas.contador("observers.error");
+    private static final Metricas.Latencia latenciaUpdate = Metricas.latencia("observers.update");
+
+    /** o.update(nivel) medido (métricas observers.* y evento JFR); la excepción del observer sigue hacia quien llama. */
+    static void despachar(Observador o, String nivel) {
+        Eventos.DespachoObservador e = new Eventos.DespachoObservador();
+        e.begin();
+        long t0 = System.nanoTime(); boolean ok = false;
+        try { o.update(nivel); ok = true; }
+        finally {
+            latenciaUpdate.registrar(System.nanoTime() - t0);
+            (ok ? despachosOk : despachosError).incrementar();
+            if (e.shouldCommit()) { e.observador = o.getClass().getSimpleName(); e.nivel = nivel; e.ok = ok; e.commit(); }
         }
     }
+
+    long entregados() { return entregados.sum(); }
+    long descartados() { return descartados.sum(); }
+    long coalescidos() { return coalescidos.sum(); }
 }
 class RepriceService implements Observador {
+    static final double BASE = 1.20;
+    /** Tarifa por km precalculada por código de NivelDemanda (BAJA, MEDIA, ALTA). */
+    private static final double[] TARIFA_KM = {BASE * 0.90, BASE * 1.20, BASE * 1.50};
+    /** Por debajo de este tamaño no vale la pena repartir entre hilos. */
+    static final int UMBRAL_PARALELO = 1 << 15;
+
     public void update(String nivel) {
-        double base = 1.20, tarifa;
-        if ("alta".equals(nivel)) tarifa = base * 1.50;
-        else if ("media".equals(nivel)) tarifa = base * 1.20;
-        else tarifa = base * 0.90;
-        System.out.println("Reprice: tarifa por km = $" + String.format("%.2f", tarifa));
+        double tarifa = TARIFA_KM[NivelDemanda.desde(nivel).codigo()];
+        if (Salida.activa()) System.out.println("Reprice: tarifa por km = $" + String.format("%.2f", tarifa));
+    }
+
+    static double tarifaKm(NivelDemanda nivel) { return TARIFA_KM[nivel.codigo()]; }
+
+    /**
+     * Reprecio en lote: tarifas[i] = km[i] × tarifa por km del nivel codigos[i],
+     * para i en [desde, hasta). Sin asignaciones ni ramas por String.
+     */
+    static void tarifas(double[] km, byte[] codigos, double[] tarifas, int desde, int hasta) {
+        final double baja = TARIFA_KM[0], media = TARIFA_KM[1], alta = TARIFA_KM[2];
+        for (int i = desde; i < hasta; i++) {
+            int c = codigos[i];
+            tarifas[i] = km[i] * (c == 2 ? alta : c == 1 ? media : baja);
+        }
+    }
+
+    /** Igual que tarifas(), pero en centavos redondeados (para montos que luego se suman o cobran). */
+    static void tarifasCentavos(double[] km, byte[] codigos, long[] centavos, int desde, int hasta) {
+        final double baja = TARIFA_KM[0] * 100, media = TARIFA_KM[1] * 100, alta = TARIFA_KM[2] * 100;
+        for (int i = desde; i < hasta; i++) {
+            int c = codigos[i];
+            centavos[i] = (long) (km[i] * (c == 2 ? alta : c == 1 ? media : baja) + 0.5);
+        }
+    }
+
+    static void tarifas(double[] km, byte[] codigos, double[] tarifas) {
+        validar(km.length, codigos.length, tarifas.length);
+        if (km.length < UMBRAL_PARALELO) tarifas(km, codigos, tarifas, 0, km.length);
+        else ForkJoinPool.commonPool().invoke(new TramoTarifas(km, codigos, tarifas, null, 0, km.length));
+    }
+
+    static void tarifasCentavos(double[] km, byte[] codigos, long[] centavos) {
+        validar(km.length, codigos.length, centavos.length);
+        if (km.length < UMBRAL_PARALELO) tarifasCentavos(km, codigos, centavos, 0, km.length);
+        else ForkJoinPool.commonPool().invoke(new TramoTarifas(km, codigos, null, centavos, 0, km.length));
+    }
+
+    private static void validar(int km, int codigos, int salida) {
+        if (km != codigos || km > salida) throw new IllegalArgumentException("Largos incompatibles: km=" + km + " codigos=" + codigos + " salida=" + salida);
+    }
+
+    /** Divide el rango en mitades hasta UMBRAL_PARALELO y calcula cada tramo en el pool fork-join. */
+    private static final class TramoTarifas extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        final double[] km; final byte[] codigos; final double[] tarifas; final long[] centavos; final int desde, hasta;
+        TramoTarifas(double[] km, byte[] codigos, double[] tarifas, long[] centavos, int desde, int hasta) {
+            this.km = km; this.codigos = codigos; this.tarifas = tarifas; this.centavos = centavos; this.desde = desde; this.hasta = hasta;
+        }
+        protected void compute() {
+            if (hasta - desde <= UMBRAL_PARALELO) {
+                if (tarifas != null) tarifas(km, codigos, tarifas, desde, hasta);
+                else tarifasCentavos(km, codigos, centavos, desde, hasta);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TramoTarifas(km, codigos, tarifas, centavos, desde, medio),
+                      new TramoTarifas(km, codigos, tarifas, centavos, medio, hasta));
+        }
     }
 }
 class FleetService implements Observador {
     public void update(String nivel) {
+        if (!Salida.activa()) return;
         if ("alta".equals(nivel)) System.out.println("Fleet: activar +20% de unidades");
         else if ("media".equals(nivel)) System.out.println("Fleet: activar +5% de unidades");
         else System.out.println("Fleet: reducir -15% de unidades");
@@ -55,6 +194,7 @@ class FleetService implements Observador {
 }
 class EtaService implements Observador {
     public void update(String nivel) {
+        if (!Salida.activa()) return;
         if ("alta".equals(nivel)) System.out.println("ETA: tiempos estimados -10%");
         else if ("media".equals(nivel)) System.out.println("ETA: tiempos estables");
         else System.out.println("ETA: tiempos +10%");
@@ -79,5 +219,15 @@ public class ObserverPrecioDinamicoSimple {
         market.setDemanda("baja");   // ignorado por debounce
         Thread.sleep(600);
         market.setDemanda("baja");   // ahora sí
+        System.out.println("Descartados por debounce: " + market.descartados());
+
+        System.out.println("--- Debounce COALESCER ---");
+        Market coalescente = new Market(0.5, Market.ModoDebounce.COALESCER, null);
+        coalescente.attach(new RepriceService());
+        coalescente.setDemanda("alta");
+        coalescente.setDemanda("media");  // reemplazado por el siguiente
+        coalescente.setDemanda("baja");   // se entrega al cerrar la ventana
+        Thread.sleep(600);
+        System.out.println("Coalescidos: " + coalescente.coalescidos());
     }
 }
@@ -0,0 +1,98 @@
+package comportamiento;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Contenido que un comando guarda para poder deshacerse (p.ej. el archivo borrado).
+ * Vive en memoria hasta que el Invocador se pasa de su presupuesto de bytes y lo
+ * derrama a un {@link Derrame}; desde entonces solo queda la posición en disco y
+ * leer() lo relee en cada uso, sin volver a retenerlo en el heap. Cuando el
+ * comando ya no lo necesita (se deshizo o salió del historial) liberar() lo
+ * descuenta del derrame, que el Invocador compacta al acumular espacio muerto.
+ */
+final class Respaldo {
+    private String texto;
+    private Derrame archivo; private long pos; private int largo;
+
+    Respaldo(String texto){ this.texto = texto; }
+
+    String leer() {
+        String t = texto;
+        return t != null ? t : new String(archivo.leer(pos, largo), StandardCharsets.UTF_8);
+    }
+
+    /** Estimación del heap que retiene (UTF-16); 0 si ya está en disco. */
+    long bytesEnMemoria(){ return texto == null ? 0 : 2L * texto.length(); }
+
+    void derramar(Derrame d) {
+        if (texto == null) return;
+        byte[] b = texto.getBytes(StandardCharsets.UTF_8);
+        pos = d.escribir(b); largo = b.length; archivo = d;
+        texto = null;
+    }
+
+    /** Suelta el contenido; si estaba en disco, esos bytes pasan a ser espacio muerto del derrame. */
+    void liberar() {
+        if (archivo != null) { archivo.liberar(largo); archivo = null; }
+        texto = null;
+    }
+
+    /** Compactación: si vive en viejo, copia sus bytes a nuevo y apunta ahí. */
+    void mudar(Derrame viejo, Derrame nuevo) {
+        if (archivo != viejo || viejo == null) return;
+        pos = nuevo.escribir(viejo.leer(pos, largo)); archivo = nuevo;
+    }
+
+    /**
+     * Archivo temporal de solo-anexar para los respaldos derramados; se borra al cerrarlo.
+     * Sin fsync: si el proceso cae, el historial de undo se pierde igual que el heap.
+     */
+    static final class Derrame implements AutoCloseable {
+        private final FileChannel canal; private long fin, vivos;
+
+        Derrame(Path dir) {
+            try {
+                Path p = Files.createTempFile(dir, "undo", ".derrame");
+                canal = FileChannel.open(p, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException e) { throw new UncheckedIOException(e); }
+        }
+
+        synchronized long escribir(byte[] b) {
+            long inicio = fin;
+            try {
+                ByteBuffer bb = ByteBuffer.wrap(b);
+                while (bb.hasRemaining()) canal.write(bb, inicio + bb.position());
+            } catch (IOException e) { throw new UncheckedIOException(e); }
+            fin += b.length; vivos += b.length;
+            return inicio;
+        }
+
+        synchronized void liberar(int n){ vivos -= n; }
+
+        byte[] leer(long pos, int n) {
+            ByteBuffer bb = ByteBuffer.allocate(n);
+            try {
+                while (bb.hasRemaining())
+                    if (canal.read(bb, pos + bb.position()) < 0) throw new EOFException("Derrame truncado en " + pos);
+            } catch (IOException e) { throw new UncheckedIOException(e); }
+            return bb.array();
+        }
+
+        synchronized long tamano(){ return fin; }
+        synchronized long vivos(){ return vivos; }
+        /** Bytes de respaldos ya liberados: lo que recupera una compactación. */
+        synchronized long muertos(){ return fin - vivos; }
+
+        @Override public void close() {
+            try { canal.close(); } catch (IOException e) { throw new UncheckedIOException(e); }
+        }
+    }
+}
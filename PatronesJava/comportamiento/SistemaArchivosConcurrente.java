@@ -0,0 +1,62 @@
+package comportamiento;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Receiver concurrente para los comandos de CommandFileSystemSimulado.
+ * Las rutas viven en un ConcurrentSkipListMap (lecturas y carpeta() sin locks,
+ * vistas débilmente consistentes). Las escrituras toman el lock de la franja
+ * de su ruta, así crear comprueba y escribe sin que otro crear o mover se cuele; mover toma las dos franjas en orden fijo, así es atómico frente a
+ * cualquier otra escritura sobre src o dst. Un lector concurrente puede ver
+ * por un instante el archivo en ambos lados, nunca en ninguno.
+ */
+class SistemaArchivosConcurrente extends SistemaArchivos {
+    private final ReentrantLock[] franjas;
+
+    SistemaArchivosConcurrente(){ this(64); }
+    SistemaArchivosConcurrente(int franjas){
+        super(new ConcurrentSkipListMap<>());
+        this.franjas = new ReentrantLock[Integer.highestOneBit(Math.max(1, franjas - 1)) << 1];
+        for (int i = 0; i < this.franjas.length; i++) this.franjas[i] = new ReentrantLock();
+    }
+
+    private int franja(String path){ int h = path.hashCode(); return (h ^ (h >>> 16)) & (franjas.length - 1); }
+
+    @Override String leer(String path){
+        String c = files.get(path);
+        if (c == null) throw new IllegalStateException("No existe: "+path);
+        return c;
+    }
+    @Override void escribir(String path, String contenido){
+        ReentrantLock l = franjas[franja(path)];
+        l.lock();
+        try { files.put(path, contenido); } finally { l.unlock(); }
+    }
+    @Override boolean crear(String path, String contenido){
+        ReentrantLock l = franjas[franja(path)];
+        l.lock();
+        try { return files.putIfAbsent(path, contenido) == null; } finally { l.unlock(); }
+    }
+    @Override void eliminar(String path){
+        ReentrantLock l = franjas[franja(path)];
+        l.lock();
+        try { if (files.remove(path) == null) throw new IllegalStateException("No existe: "+path); }
+        finally { l.unlock(); }
+    }
+    @Override void mover(String src, String dst){
+        int a = franja(src), b = franja(dst);
+        ReentrantLock primero = franjas[Math.min(a, b)], segundo = franjas[Math.max(a, b)];
+        primero.lock();
+        try {
+            if (segundo != primero) segundo.lock();
+            try {
+                String c = files.get(src);
+                if (c == null) throw new IllegalStateException("No existe: "+src);
+                if (files.containsKey(dst)) throw new IllegalStateException("Ya existe destino: "+dst);
+                files.put(dst, c);
+                files.remove(src);
+            } finally { if (segundo != primero) segundo.unlock(); }
+        } finally { primero.unlock(); }
+    }
+}
@@ -0,0 +1,57 @@
+package creacional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+/**
+ * Benchmark — Generador de IDs: ruta synchronized vs concurrente vs persistente (Java)
+ * Mide IDs/segundo con 1..N hilos pidiendo IDs de tres series a la vez.
+ * Ejecutar:
+ *   javac creacional/*.java
+ *   java creacional.BenchmarkGeneradorIds [hilosMax] [idsPorHilo]
+ */
+public class BenchmarkGeneradorIds {
+    private static final String[] PREFIJOS = {"TICKET", "AUTO", "FACTURA"};
+
+    static double medir(int hilos, int porHilo, Function<String,String> siguiente) throws InterruptedException {
+        CountDownLatch inicio = new CountDownLatch(1), fin = new CountDownLatch(hilos);
+        for (int t = 0; t < hilos; t++) {
+            final String prefijo = PREFIJOS[t % PREFIJOS.length];
+            new Thread(() -> {
+                try { inicio.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                for (int i = 0; i < porHilo; i++) siguiente.apply(prefijo);
+                fin.countDown();
+            }).start();
+        }
+        long t0 = System.nanoTime();
+        inicio.countDown();
+        fin.await();
+        return hilos * (double) porHilo / ((System.nanoTime() - t0) / 1e9);
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int hilosMax = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int porHilo = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        GeneradorIdsMulti sync = GeneradorIdsMulti.getInstance();
+        GeneradorIdsConcurrente conc = GeneradorIdsConcurrente.getInstance();
+        Path ckpt = Files.createTempFile("bench_ids", ".ckpt");
+        Files.delete(ckpt);
+        try (GeneradorIdsPersistente pers = GeneradorIdsPersistente.abrir(ckpt, 1000)) {
+            medir(2, porHilo, sync::siguiente); medir(2, porHilo, conc::siguiente); medir(2, porHilo, pers::siguiente); // calentamiento
+
+            System.out.println("=== Benchmark: GeneradorIds (IDs/s) ===");
+            System.out.printf("%-6s %16s %16s %16s%n", "Hilos", "synchronized", "concurrente", "persistente");
+            for (int h = 1; h <= hilosMax; h *= 2) {
+                double a = medir(h, porHilo, sync::siguiente);
+                double b = medir(h, porHilo, conc::siguiente);
+                double c = medir(h, porHilo, pers::siguiente);
+                System.out.printf("%-6d %16.0f %16.0f %16.0f%n", h, a, b, c);
+            }
+        } finally {
+            Files.deleteIfExists(ckpt);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package creacional;
+
+/**
+ * Benchmark — Coste por ID: siguienteLote vs bucle de siguiente (Java)
+ * Cada ronda necesita {@code lote} IDs de TICKET y suma su largo para que el
+ * JIT no descarte el trabajo. Se reporta nanosegundos por ID.
+ * Ejecutar:
+ *   javac creacional/*.java
+ *   java creacional.BenchmarkLoteIds [lote] [rondas]
+ */
+public class BenchmarkLoteIds {
+    private static long sumidero;
+
+    interface Ronda { void correr(int lote); }
+
+    static double nsPorId(int lote, int rondas, Ronda r) {
+        for (int i = 0; i < Math.max(1, rondas / 5); i++) r.correr(lote); // calentamiento
+        long t0 = System.nanoTime();
+        for (int i = 0; i < rondas; i++) r.correr(lote);
+        return (System.nanoTime() - t0) / ((double) lote * rondas);
+    }
+
+    public static void main(String[] args) {
+        int lote = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int rondas = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        GeneradorIdsMulti sync = GeneradorIdsMulti.getInstance();
+        GeneradorIdsConcurrente conc = GeneradorIdsConcurrente.getInstance();
+
+        System.out.println("=== Benchmark: lote de " + lote + " IDs x " + rondas + " rondas (ns/ID) ===");
+        System.out.printf("%-50s %10.2f%n", "GeneradorIdsMulti.siguiente (bucle)",
+            nsPorId(lote, rondas, n -> { for (int i = 0; i < n; i++) sumidero += sync.siguiente("TICKET").length(); }));
+        System.out.printf("%-50s %10.2f%n", "GeneradorIdsConcurrente.siguiente (bucle)",
+            nsPorId(lote, rondas, n -> { for (int i = 0; i < n; i++) sumidero += conc.siguiente("TICKET").length(); }));
+        System.out.printf("%-50s %10.2f%n", "GeneradorIdsMulti.siguienteLote + recorrer",
+            nsPorId(lote, rondas, n -> sync.siguienteLote("TICKET", n).recorrer(id -> sumidero += id.length())));
+        System.out.printf("%-50s %10.2f%n", "GeneradorIdsConcurrente.siguienteLote + recorrer",
+            nsPorId(lote, rondas, n -> conc.siguienteLote("TICKET", n).recorrer(id -> sumidero += id.length())));
+        System.out.printf("%-50s %10.2f%n", "siguienteLote (solo reservar el rango)",
+            nsPorId(lote, rondas, n -> sumidero += conc.siguienteLote("TICKET", n).tamano()));
+        System.out.println("(sumidero " + sumidero + ")");
+    }
+}
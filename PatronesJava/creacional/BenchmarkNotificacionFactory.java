@@ -0,0 +1,64 @@
+package creacional;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Benchmark — NotificacionFactory.crear + enviar: reflexión vs registro (Java)
+ * "Antes" reproduce la fábrica original (Class + getDeclaredConstructor().newInstance()
+ * por mensaje); "después" usa el registro de instancias. La salida de enviar se
+ * descarta para medir la fábrica y no la consola.
+ * Ejecutar:
+ *   javac creacional/*.java
+ *   java creacional.BenchmarkNotificacionFactory [mensajes]
+ */
+public class BenchmarkNotificacionFactory {
+    private static final String[] CANALES = {"sms", "email", "wa"};
+
+    /** Fábrica tal como estaba antes del registro, solo para comparar. */
+    static final class FactoryReflexiva {
+        private static final Map<String, Class<? extends Notificacion>> map = new HashMap<>();
+        static {
+            map.put("sms", NotificacionSMS.class);
+            map.put("email", NotificacionEmail.class);
+            map.put("wa", NotificacionWhatsApp.class);
+        }
+        static Notificacion crear(String canal) {
+            try {
+                Class<? extends Notificacion> cls = map.get(canal.toLowerCase());
+                if (cls == null) throw new IllegalArgumentException("Canal no soportado: " + canal);
+                return cls.getDeclaredConstructor().newInstance();
+            } catch (Exception e) {
+                throw new RuntimeException("No se pudo crear notificación: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    interface Fabrica { Notificacion crear(String canal); }
+
+    static double mensajesPorSegundo(int mensajes, Fabrica f) {
+        long t0 = System.nanoTime();
+        for (int i = 0; i < mensajes; i++) f.crear(CANALES[i % CANALES.length]).enviar("+593900000000", "Hola");
+        return mensajes / ((System.nanoTime() - t0) / 1e9);
+    }
+
+    public static void main(String[] args) {
+        int mensajes = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        PrintStream consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            mensajesPorSegundo(mensajes / 4, FactoryReflexiva::crear);
+            mensajesPorSegundo(mensajes / 4, NotificacionFactory::crear);
+            double antes = mensajesPorSegundo(mensajes, FactoryReflexiva::crear);
+            double despues = mensajesPorSegundo(mensajes, NotificacionFactory::crear);
+            consola.println("=== Benchmark: crear + enviar (" + mensajes + " mensajes) ===");
+            consola.printf("%-28s %14.0f msg/s%n", "antes (reflexión)", antes);
+            consola.printf("%-28s %14.0f msg/s%n", "después (registro)", despues);
+            consola.printf("%-28s %14.2f x%n", "mejora", despues / antes);
+        } finally {
+            System.setOut(consola);
+        }
+    }
+}
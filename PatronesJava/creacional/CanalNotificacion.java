@@ -0,0 +1,13 @@
+package creacional;
+
+/**
+ * Canal de notificación descubrible con ServiceLoader.
+ * Para añadir uno sin editar NotificacionFactory: implementar esta interfaz en
+ * una clase pública con constructor público sin argumentos y listarla en
+ * META-INF/services/creacional.CanalNotificacion. Se registra una sola
+ * instancia, así que la implementación no debe guardar estado por mensaje.
+ */
+public interface CanalNotificacion extends Notificacion {
+    /** Nombre con el que se pide en NotificacionFactory.crear (p.ej. "telegram"). */
+    String canal();
+}
@@ -0,0 +1,25 @@
+package creacional;
+
+import soporte.Escenario;
+
+/**
+ * Escenarios de carga de los patrones creacionales, para el modo headless de Main (ver soporte.Carga).
+ */
+public final class CargaCreacional {
+    private CargaCreacional() { }
+
+    /** Factory Method: crear(canal).enviar(...) rotando entre los canales registrados. */
+    public static Escenario notificaciones() {
+        String[] canales = NotificacionFactory.canales().toArray(new String[0]);
+        return hilo -> {
+            int[] i = {hilo};
+            return () -> NotificacionFactory.crear(canales[i[0]++ % canales.length]).enviar("dest" + hilo, "Carga");
+        };
+    }
+
+    /** Singleton: GeneradorIdsMulti.siguiente con una serie compartida por todos los hilos. */
+    public static Escenario ids() {
+        GeneradorIdsMulti g = GeneradorIdsMulti.getInstance();
+        return hilo -> () -> g.siguiente("CARGA");
+    }
+}
@@ -0,0 +1,248 @@
+package creacional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import soporte.Hilos;
+
+/**
+ * Despacho asíncrono por lotes sobre {@link Notificacion} (Java)
+ * Cada canal tiene su cola acotada y su propio worker (hilo virtual si la JVM
+ * lo permite), así un proveedor SMS lento no frena al email. El worker junta
+ * hasta {@code loteMax} mensajes o espera {@code esperaMaxMs} y los manda con
+ * enviarLote. Si la cola está llena se aplica la contrapresión configurada.
+ * Al cerrar, cada canal deja de aceptar mensajes y su worker termina recién
+ * cuando no queda ningún productor a mitad de ofrecer() y la cola está vacía,
+ * así que todo lo contado en encolados se envía o se cuenta como error.
+ * Ejecutar:
+ *   javac creacional/*.java soporte/*.java
+ *   java creacional.DespachadorNotificaciones [mensajes]
+ */
+public class DespachadorNotificaciones implements AutoCloseable {
+
+    public enum Contrapresion { BLOQUEAR, DESCARTAR, RECHAZAR }
+
+    /** Configuración del despachador; valores por defecto razonables para una campaña. */
+    public static final class Config {
+        int capacidad = 10_000; int loteMax = 500; long esperaMaxMs = 50;
+        Contrapresion contrapresion = Contrapresion.BLOQUEAR;
+        ThreadFactory hilos = Hilos.virtuales("notif");
+        public Config capacidad(int c){ if (c <= 0) throw new IllegalArgumentException("capacidad > 0"); capacidad = c; return this; }
+        public Config loteMax(int n){ if (n <= 0) throw new IllegalArgumentException("loteMax > 0"); loteMax = n; return this; }
+        public Config esperaMaxMs(long ms){ esperaMaxMs = Math.max(0, ms); return this; }
+        public Config contrapresion(Contrapresion c){ contrapresion = c; return this; }
+        public Config hilos(ThreadFactory f){ hilos = f; return this; }
+    }
+
+    /** Foto de los contadores de un canal. */
+    public static final class Estadisticas {
+        public final int profundidad; public final long encolados, enviados, lotes, descartados, rechazados, errores;
+        public final double loteMedio, latenciaMediaMs, latenciaMaxMs;
+        Estadisticas(Canal c) {
+            profundidad = c.cola.size(); encolados = c.encolados.sum(); enviados = c.enviados.sum();
+            lotes = c.lotes.sum(); descartados = c.descartados.sum(); rechazados = c.rechazados.sum(); errores = c.errores.sum();
+            loteMedio = lotes == 0 ? 0 : (enviados + errores) / (double) lotes;
+            long n = enviados + errores;
+            latenciaMediaMs = n == 0 ? 0 : c.latenciaTotalNs.sum() / 1e6 / n;
+            latenciaMaxMs = c.latenciaMaxNs.get() / 1e6;
+        }
+        @Override public String toString() {
+            return String.format("cola=%d encolados=%d enviados=%d lotes=%d loteMedio=%.1f descartados=%d rechazados=%d errores=%d latMedia=%.2fms latMax=%.2fms",
+                profundidad, encolados, enviados, lotes, loteMedio, descartados, rechazados, errores, latenciaMediaMs, latenciaMaxMs);
+        }
+    }
+
+    private final class Canal implements Runnable {
+        private static final int CERRANDO = Integer.MIN_VALUE;
+        final String nombre; final Notificacion destino; final BlockingQueue<Notificacion.Mensaje> cola;
+        final LongAdder encolados = new LongAdder(), enviados = new LongAdder(), lotes = new LongAdder(),
+            descartados = new LongAdder(), rechazados = new LongAdder(), errores = new LongAdder(), latenciaTotalNs = new LongAdder();
+        final AtomicLong latenciaMaxNs = new AtomicLong();
+        /** Bit alto: el canal está cerrando; resto: productores dentro de ofrecer(). */
+        final AtomicInteger estado = new AtomicInteger();
+        final Thread worker;
+
+        Canal(String nombre, Notificacion destino) {
+            this.nombre = nombre; this.destino = destino;
+            this.cola = new ArrayBlockingQueue<>(config.capacidad);
+            this.worker = config.hilos.newThread(this);
+            worker.start();
+        }
+
+        boolean ofrecer(Notificacion.Mensaje m) throws InterruptedException {
+            for (int s = estado.get(); ; s = estado.get()) {
+                if (s < 0) throw new RejectedExecutionException("Canal " + nombre + " cerrado");
+                if (estado.compareAndSet(s, s + 1)) break;
+            }
+            try {
+                switch (config.contrapresion) {
+                    case BLOQUEAR:
+                        while (!cola.offer(m, 100, TimeUnit.MILLISECONDS)) {
+                            if (!worker.isAlive()) { rechazados.increment(); throw new RejectedExecutionException("Worker del canal " + nombre + " terminado"); }
+                        }
+                        break;
+                    case DESCARTAR:
+                        if (!cola.offer(m)) { descartados.increment(); return false; }
+                        break;
+                    default:
+                        if (!cola.offer(m)) { rechazados.increment(); throw new RejectedExecutionException("Cola llena en canal " + nombre); }
+                }
+                encolados.increment();
+                return true;
+            } finally {
+                estado.decrementAndGet();
+            }
+        }
+
+        void cerrar() { estado.getAndUpdate(s -> s | CERRANDO); }
+
+        /** Cerrando, sin productores en curso (ya nadie puede encolar) y con la cola vacía. */
+        private boolean terminado() { return estado.get() == CERRANDO && cola.isEmpty(); }
+
+        public void run() {
+            List<Notificacion.Mensaje> lote = new ArrayList<>(config.loteMax);
+            long esperaNs = TimeUnit.MILLISECONDS.toNanos(config.esperaMaxMs);
+            try {
+                while (true) {
+                    Notificacion.Mensaje primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                    if (primero == null) { if (terminado()) break; else continue; }
+                    lote.add(primero);
+                    long limite = System.nanoTime() + esperaNs;
+                    while (lote.size() < config.loteMax) {
+                        if (cola.drainTo(lote, config.loteMax - lote.size()) > 0) continue;
+                        long resta = limite - System.nanoTime();
+                        if (resta <= 0) break;
+                        Notificacion.Mensaje m = cola.poll(resta, TimeUnit.NANOSECONDS);
+                        if (m == null) break;
+                        lote.add(m);
+                    }
+                    vaciar(lote);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                descartarPendientes(lote);
+            }
+        }
+
+        /**
+         * Si el worker sale antes de tiempo (interrupción o un Error de enviarLote), cierra el
+         * canal y cuenta como error el lote en curso y lo que quede o llegue a la cola, hasta
+         * que no haya productores en curso; así ninguno se queda bloqueado esperando hueco.
+         */
+        private void descartarPendientes(List<Notificacion.Mensaje> lote) {
+            cerrar();
+            errores.add(lote.size());
+            lote.clear();
+            while (!terminado()) {
+                int n = cola.drainTo(lote);
+                errores.add(n);
+                lote.clear();
+                if (n == 0) Thread.yield();
+            }
+        }
+
+        private void vaciar(List<Notificacion.Mensaje> lote) {
+            lotes.increment();
+            try {
+                destino.enviarLote(lote);
+                enviados.add(lote.size());
+            } catch (RuntimeException e) {
+                errores.add(lote.size());
+            }
+            long ahora = System.nanoTime();
+            for (Notificacion.Mensaje m : lote) {
+                long lat = ahora - m.encoladoNs;
+                latenciaTotalNs.add(lat);
+                if (lat > latenciaMaxNs.get()) latenciaMaxNs.accumulateAndGet(lat, Math::max);
+            }
+            lote.clear();
+        }
+    }
+
+    private final Config config;
+    private final Function<String, Notificacion> resolver;
+    private final Map<String, Canal> canales = new ConcurrentHashMap<>();
+    private volatile boolean cerrado;
+
+    public DespachadorNotificaciones(Config config) { this(config, NotificacionFactory::crear); }
+
+    /** resolver traduce el nombre del canal a su Notificacion (por defecto, NotificacionFactory). */
+    public DespachadorNotificaciones(Config config, Function<String, Notificacion> resolver) {
+        this.config = config; this.resolver = resolver;
+    }
+
+    /**
+     * Encola un mensaje. Devuelve false si se descartó (DESCARTAR); con RECHAZAR lanza
+     * RejectedExecutionException; con BLOQUEAR espera a que haya hueco.
+     */
+    public boolean enviar(String canal, String destinatario, String mensaje) throws InterruptedException {
+        if (cerrado) throw new RejectedExecutionException("Despachador cerrado");
+        Canal c = canales.get(canal);
+        if (c == null) c = abrirCanal(canal.toLowerCase());
+        return c.ofrecer(new Notificacion.Mensaje(destinatario, mensaje));
+    }
+
+    /** Crea canales bajo el mismo monitor que close(): ninguno nace después de cerrar. */
+    private synchronized Canal abrirCanal(String nombre) {
+        if (cerrado) throw new RejectedExecutionException("Despachador cerrado");
+        return canales.computeIfAbsent(nombre, k -> new Canal(k, resolver.apply(k)));
+    }
+
+    public Map<String, Estadisticas> metricas() {
+        Map<String, Estadisticas> m = new TreeMap<>();
+        for (Canal c : canales.values()) m.put(c.nombre, new Estadisticas(c));
+        return m;
+    }
+
+    /** Deja de aceptar mensajes y espera a que cada canal vacíe su cola. */
+    @Override
+    public void close() {
+        synchronized (this) { cerrado = true; }
+        for (Canal c : canales.values()) c.cerrar();
+        try {
+            for (Canal c : canales.values()) c.worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Demo: campaña a tres canales con un SMS lento que no frena al resto
+    public static void main(String[] args) throws InterruptedException {
+        int mensajes = args.length > 0 ? Integer.parseInt(args[0]) : 30_000;
+        Map<String, Notificacion> canales = new TreeMap<>();
+        canales.put("email", (d, t) -> { });
+        canales.put("wa", (d, t) -> { });
+        canales.put("sms", new Notificacion() {
+            public void enviar(String d, String t) { }
+            public void enviarLote(List<Mensaje> lote) {   // proveedor lento: 20 ms por lote
+                try { Thread.sleep(20); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            }
+        });
+        System.out.println("=== Despachador asíncrono de notificaciones (Java) ===");
+        System.out.println("Hilos virtuales: " + (Hilos.hayVirtuales() ? "sí" : "no (Java < 21, hilos de plataforma)"));
+        Config cfg = new Config().capacidad(2_000).loteMax(200).esperaMaxMs(10).contrapresion(Contrapresion.DESCARTAR);
+        long t0 = System.nanoTime();
+        DespachadorNotificaciones d = new DespachadorNotificaciones(cfg, canales::get);
+        try {
+            for (int i = 0; i < mensajes; i++)
+                for (String c : canales.keySet()) d.enviar(c, "dest" + i, "Campaña");
+        } finally {
+            d.close();
+        }
+        System.out.printf("Campaña de %d mensajes en %.1f ms%n", mensajes * canales.size(), (System.nanoTime() - t0) / 1e6);
+        d.metricas().forEach((c, e) -> System.out.println(String.format("%-6s", c) + " " + e));
+    }
+}
@@ -0,0 +1,105 @@
+package creacional;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import soporte.Eventos;
+import soporte.Metricas;
+
+/**
+ * Singleton — Generador de IDs multiserie, modo concurrente (Java)
+ * Misma API que {@link GeneradorIdsMulti}, pero sin monitor global:
+ *  - un contador atómico por prefijo (ConcurrentHashMap + AtomicLong),
+ *  - un prefijo que ya llega normalizado (mayúsculas, sin espacios) se busca tal cual,
+ *    sin copiarlo; los demás se normalizan en cada llamada (no se cachean: el mapa
+ *    solo crece con las series, no con cada variante de texto que mande un cliente),
+ *  - el ID con ceros a la izquierda se arma a mano, sin String.format.
+ * Ejecutar:
+ *   javac creacional/*.java
+ *   java creacional.GeneradorIdsConcurrente
+ */
+public class GeneradorIdsConcurrente {
+    private static final GeneradorIdsConcurrente INSTANCE = new GeneradorIdsConcurrente();
+    private static final int ancho = 4; private static final String sep = "-";
+
+    /** Serie de un prefijo ya normalizado: "TICKET-" precalculado y su contador. */
+    static final class Serie {
+        final String prefijo; final char[] cabecera; final AtomicLong n = new AtomicLong();
+        Serie(String prefijo){ this.prefijo = prefijo; this.cabecera = (prefijo + sep).toCharArray(); }
+        String formatear(long valor){ return GeneradorIdsConcurrente.formatear(cabecera, valor, ancho); }
+    }
+
+    private final Map<String,Serie> series = new ConcurrentHashMap<>();   // prefijo normalizado -> serie
+
+    private GeneradorIdsConcurrente(){}
+
+    public static GeneradorIdsConcurrente getInstance() { return INSTANCE; }
+
+    Serie serie(String prefijo) {
+        Serie s = series.get(prefijo);   // las claves están normalizadas: si acierta, prefijo ya lo estaba
+        return s != null ? s : series.computeIfAbsent(prefijo.toUpperCase().trim(), Serie::new);
+    }
+
+    private static final Metricas.Contador emitidos = Metricas.contador("ids.concurrente.emitidos");
+
+    public String siguiente(String prefijo) {
+        Eventos.IdEmitido e = new Eventos.IdEmitido();
+        e.begin();
+        Serie s = serie(prefijo);
+        String id = s.formatear(s.n.incrementAndGet());
+        emitidos.incrementar();
+        if (e.shouldCommit()) { e.prefijo = s.prefijo; e.cantidad = 1; e.commit(); }
+        return id;
+    }
+    /** Reserva n IDs contiguos con un único getAndAdd. */
+    public RangoIds siguienteLote(String prefijo, int n) {
+        RangoIds.validarLote(n);
+        Eventos.IdEmitido e = new Eventos.IdEmitido();
+        e.begin();
+        Serie s = serie(prefijo);
+        long desde = s.n.getAndAdd(n) + 1;
+        emitidos.sumar(n);
+        if (e.shouldCommit()) { e.prefijo = s.prefijo; e.cantidad = n; e.commit(); }
+        return new RangoIds(s.cabecera, desde, desde + n - 1, ancho);
+    }
+    public long valorActual(String prefijo) {
+        Serie s = series.get(prefijo.toUpperCase().trim());
+        return s == null ? 0 : s.n.get();
+    }
+    public void setInicio(String prefijo, long valor) { serie(prefijo).n.set(Math.max(0L, valor)); }
+    public Map<String,Long> estado() {
+        Map<String,Long> m = new TreeMap<>();
+        for (Serie s : series.values()) m.put(s.prefijo, s.n.get());
+        return m;
+    }
+
+    /** Equivale a String.format("%s%0{ancho}d", cabecera, valor) para valor >= 0. */
+    static String formatear(char[] cabecera, long valor, int ancho) {
+        int digitos = 1;
+        for (long v = valor; v >= 10; v /= 10) digitos++;
+        int cifras = Math.max(ancho, digitos);
+        char[] buf = new char[cabecera.length + cifras];
+        System.arraycopy(cabecera, 0, buf, 0, cabecera.length);
+        int i = buf.length;
+        for (long v = valor; i > cabecera.length; v /= 10) buf[--i] = (char)('0' + (v % 10));
+        return new String(buf);
+    }
+
+    // Demo
+    public static void main(String[] args) {
+        System.out.println("=== Singleton: Generador de IDs multiserie concurrente (Java) ===");
+        GeneradorIdsConcurrente g = GeneradorIdsConcurrente.getInstance();
+        System.out.println("[Ticket] " + g.siguiente("TICKET"));
+        System.out.println("[Ticket] " + g.siguiente(" ticket "));
+        System.out.println("[Auto]   " + g.siguiente("AUTO"));
+        System.out.println("[Sin]    " + g.siguiente("SIN"));
+        System.out.println("TICKET actual: " + g.valorActual("TICKET"));
+        g.setInicio("SIN", 100);
+        System.out.println("Nuevo SIN: " + g.siguiente("SIN"));
+        RangoIds lote = g.siguienteLote("TICKET", 3);
+        lote.recorrer(id -> System.out.println("[Lote]   " + id));
+        System.out.println("Estado: " + g.estado());
+    }
+}
@@ -3,6 +3,9 @@ package creacional;
 import java.util.Map;
 import java.util.TreeMap;
 
+import soporte.Eventos;
+import soporte.Metricas;
+
 /**
  * Singleton — Generador de IDs multiserie (Java)
  * Equivalente del Python "creacion_tickets_singleton.py".
@@ -12,7 +15,7 @@ import java.util.TreeMap;
  */
 public class GeneradorIdsMulti {
     private static GeneradorIdsMulti INSTANCE;
-    private final Map<String,Integer> series = new TreeMap<>();
+    private final Map<String,Long> series = new TreeMap<>();
     private final int ancho = 4; private final String sep = "-";
 
     private GeneradorIdsMulti(){}
@@ -22,19 +25,38 @@ public class GeneradorIdsMulti {
         return INSTANCE;
     }
 
+    private static final Metricas.Contador emitidos = Metricas.contador("ids.multi.emitidos");
+
     public synchronized String siguiente(String prefijo) {
+        Eventos.IdEmitido e = new Eventos.IdEmitido();
+        e.begin();
         String p = prefijo.toUpperCase().trim();
-        int n = series.getOrDefault(p, 0) + 1;
+        long n = series.getOrDefault(p, 0L) + 1;
         series.put(p, n);
-        return String.format("%s%s%0" + ancho + "d", p, sep, n);
+        String id = String.format("%s%s%0" + ancho + "d", p, sep, n);
+        emitidos.incrementar();
+        if (e.shouldCommit()) { e.prefijo = p; e.cantidad = 1; e.commit(); }
+        return id;
+    }
+    /** Reserva n IDs contiguos con una sola toma del lock; los textos se arman desde el rango. */
+    public synchronized RangoIds siguienteLote(String prefijo, int n) {
+        RangoIds.validarLote(n);
+        Eventos.IdEmitido e = new Eventos.IdEmitido();
+        e.begin();
+        String p = prefijo.toUpperCase().trim();
+        long desde = series.getOrDefault(p, 0L) + 1, hasta = desde + n - 1;
+        series.put(p, hasta);
+        emitidos.sumar(n);
+        if (e.shouldCommit()) { e.prefijo = p; e.cantidad = n; e.commit(); }
+        return new RangoIds((p + sep).toCharArray(), desde, hasta, ancho);
     }
-    public synchronized int valorActual(String prefijo) {
-        return series.getOrDefault(prefijo.toUpperCase().trim(), 0);
+    public synchronized long valorActual(String prefijo) {
+        return series.getOrDefault(prefijo.toUpperCase().trim(), 0L);
     }
-    public synchronized void setInicio(String prefijo, int valor) {
-        series.put(prefijo.toUpperCase().trim(), Math.max(0, valor));
+    public synchronized void setInicio(String prefijo, long valor) {
+        series.put(prefijo.toUpperCase().trim(), Math.max(0L, valor));
     }
-    public synchronized Map<String,Integer> estado(){ return new TreeMap<>(series); }
+    public synchronized Map<String,Long> estado(){ return new TreeMap<>(series); }
 
     // Demo
     public static void main(String[] args) {
@@ -47,6 +69,8 @@ public class GeneradorIdsMulti {
         System.out.println("TICKET actual: " + g.valorActual("TICKET"));
         g.setInicio("SIN", 100);
         System.out.println("Nuevo SIN: " + g.siguiente("SIN"));
+        RangoIds lote = g.siguienteLote("TICKET", 3);
+        System.out.println("Lote TICKET: " + lote.id(0) + " .. " + lote.id(lote.tamano() - 1));
         System.out.println("Estado: " + g.estado());
     }
 }
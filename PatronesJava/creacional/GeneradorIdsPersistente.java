@@ -0,0 +1,218 @@
+package creacional;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import soporte.Eventos;
+import soporte.Metricas;
+
+/**
+ * Generador de IDs multiserie persistente, con arriendo de bloques (Java)
+ * Cada prefijo arrienda bloques de IDs (p.ej. 1000) y solo el tope del bloque
+ * se guarda en un checkpoint pequeño mapeado en memoria: una escritura durable
+ * por bloque, no por ID. Al reiniciar, cada serie continúa después del último
+ * bloque arrendado, así que nunca se repite un ID (a cambio de saltarse los
+ * que quedaron sin usar en el bloque abierto).
+ *
+ * Formato del checkpoint: cabecera [magic int][versión int][slots usados int][libre int]
+ * y luego slots de 64 bytes: [largo prefijo byte][prefijo UTF-8 ≤ 55 bytes][tope long].
+ *
+ * Ejecutar:
+ *   javac creacional/*.java
+ *   java creacional.GeneradorIdsPersistente [archivo] [bloque]
+ */
+public class GeneradorIdsPersistente implements AutoCloseable {
+    private static final int MAGIC = 0x49445331; // "IDS1"
+    private static final int VERSION = 1, CABECERA = 16, SLOT = 64, MAX_PREFIJO = SLOT - 9;
+    private static final int ancho = 4; private static final String sep = "-";
+
+    /** Serie persistente: contador en memoria + tope arrendado en su slot del checkpoint. */
+    private final class Serie {
+        final String prefijo; final char[] cabecera; final int slot;
+        final AtomicLong n; volatile long tope;
+        Serie(String prefijo, int slot, long tope) {
+            this.prefijo = prefijo; this.cabecera = (prefijo + sep).toCharArray(); this.slot = slot;
+            this.n = new AtomicLong(tope); this.tope = tope;
+        }
+        long siguiente() {
+            long v = n.incrementAndGet();
+            if (v > tope) arrendar(v);
+            return v;
+        }
+        long lote(int k) {
+            long desde = n.getAndAdd(k) + 1, hasta = desde + k - 1;
+            if (hasta > tope) arrendar(hasta);
+            return desde;
+        }
+        /** Solo el hilo que se sale del bloque toma el lock; el tope se publica tras el force(). */
+        synchronized void arrendar(long v) {
+            long t = tope;
+            if (v <= t) return;
+            while (t < v) t += bloque;
+            guardarTope(slot, t);
+            tope = t;
+        }
+        synchronized void reiniciar(long valor) {
+            guardarTope(slot, valor);
+            tope = valor;
+            n.set(valor);
+        }
+    }
+
+    private final FileChannel canal;
+    private final MappedByteBuffer mapa;
+    private final int bloque, maxSeries;
+    private final Map<String,Serie> series = new ConcurrentHashMap<>();
+    private final Map<String,Serie> alias = new ConcurrentHashMap<>();
+    private int usados;
+
+    private GeneradorIdsPersistente(FileChannel canal, MappedByteBuffer mapa, int bloque, int maxSeries) {
+        this.canal = canal; this.mapa = mapa; this.bloque = bloque; this.maxSeries = maxSeries;
+    }
+
+    public static GeneradorIdsPersistente abrir(Path archivo, int bloque) throws IOException {
+        return abrir(archivo, bloque, 1024);
+    }
+
+    public static GeneradorIdsPersistente abrir(Path archivo, int bloque, int maxSeries) throws IOException {
+        if (bloque <= 0) throw new IllegalArgumentException("bloque debe ser > 0");
+        FileChannel ch = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean nuevo = ch.size() == 0;
+            long tam = CABECERA + (long) SLOT * maxSeries;
+            MappedByteBuffer m = ch.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(tam, ch.size()));
+            GeneradorIdsPersistente g = new GeneradorIdsPersistente(ch, m, bloque, maxSeries);
+            if (nuevo) {
+                m.putInt(0, MAGIC); m.putInt(4, VERSION); m.putInt(8, 0);
+                m.force();
+            } else {
+                g.cargar(archivo);
+            }
+            return g;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    private void cargar(Path archivo) throws IOException {
+        if (mapa.getInt(0) != MAGIC || mapa.getInt(4) != VERSION)
+            throw new IOException("Checkpoint de IDs no reconocido: " + archivo);
+        usados = mapa.getInt(8);
+        if (usados < 0 || usados > maxSeries) throw new IOException("Checkpoint corrupto (" + usados + " series): " + archivo);
+        for (int i = 0; i < usados; i++) {
+            int off = CABECERA + i * SLOT;
+            byte[] b = new byte[mapa.get(off)];
+            mapa.get(off + 1, b);
+            String p = new String(b, StandardCharsets.UTF_8);
+            series.put(p, new Serie(p, i, mapa.getLong(off + 1 + MAX_PREFIJO)));
+        }
+    }
+
+    private void guardarTope(int slot, long tope) {
+        mapa.putLong(CABECERA + slot * SLOT + 1 + MAX_PREFIJO, tope);
+        mapa.force();
+    }
+
+    /** Alta de una serie nueva: escribe el prefijo en su slot antes de contarlo como usado. */
+    private synchronized Serie crear(String p) {
+        Serie s = series.get(p);
+        if (s != null) return s;
+        byte[] b = p.getBytes(StandardCharsets.UTF_8);
+        if (b.length > MAX_PREFIJO) throw new IllegalArgumentException("Prefijo demasiado largo: " + p);
+        if (usados == maxSeries) throw new IllegalStateException("Checkpoint lleno: " + maxSeries + " series");
+        int off = CABECERA + usados * SLOT;
+        mapa.put(off, (byte) b.length);
+        mapa.put(off + 1, b);
+        mapa.putLong(off + 1 + MAX_PREFIJO, 0L);
+        mapa.putInt(8, usados + 1);
+        mapa.force();
+        s = new Serie(p, usados++, 0L);
+        series.put(p, s);
+        return s;
+    }
+
+    private Serie serie(String prefijo) {
+        Serie s = alias.get(prefijo);
+        if (s != null) return s;
+        String p = prefijo.toUpperCase().trim();
+        s = series.get(p);
+        if (s == null) s = crear(p);
+        alias.putIfAbsent(prefijo, s);
+        return s;
+    }
+
+    private static final Metricas.Contador emitidos = Metricas.contador("ids.persistente.emitidos");
+
+    public String siguiente(String prefijo) {
+        Eventos.IdEmitido e = new Eventos.IdEmitido();
+        e.begin();
+        Serie s = serie(prefijo);
+        String id = GeneradorIdsConcurrente.formatear(s.cabecera, s.siguiente(), ancho);
+        emitidos.incrementar();
+        if (e.shouldCommit()) { e.prefijo = s.prefijo; e.cantidad = 1; e.commit(); }
+        return id;
+    }
+    /** Reserva n IDs contiguos; si el rango cruza el bloque arrendado, se arriendan los bloques que falten. */
+    public RangoIds siguienteLote(String prefijo, int n) {
+        RangoIds.validarLote(n);
+        Eventos.IdEmitido e = new Eventos.IdEmitido();
+        e.begin();
+        Serie s = serie(prefijo);
+        long desde = s.lote(n);
+        emitidos.sumar(n);
+        if (e.shouldCommit()) { e.prefijo = s.prefijo; e.cantidad = n; e.commit(); }
+        return new RangoIds(s.cabecera, desde, desde + n - 1, ancho);
+    }
+    public long valorActual(String prefijo) {
+        Serie s = series.get(prefijo.toUpperCase().trim());
+        return s == null ? 0L : s.n.get();
+    }
+    /** Fija el contador y lo deja durable de inmediato (también si se baja el valor). */
+    public void setInicio(String prefijo, long valor) { serie(prefijo).reiniciar(Math.max(0L, valor)); }
+    public Map<String,Long> estado() {
+        Map<String,Long> m = new TreeMap<>();
+        for (Serie s : series.values()) m.put(s.prefijo, s.n.get());
+        return m;
+    }
+    /** Tope arrendado (y persistido) de la serie: tras reiniciar, el siguiente ID será tope + 1. */
+    public long topeArrendado(String prefijo) {
+        Serie s = series.get(prefijo.toUpperCase().trim());
+        return s == null ? 0L : s.tope;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try { mapa.force(); }
+        finally { canal.close(); }
+    }
+
+    // Demo
+    public static void main(String[] args) throws IOException {
+        Path archivo = args.length > 0 ? Paths.get(args[0]) : Paths.get(System.getProperty("java.io.tmpdir"), "ids_demo.ckpt");
+        int bloque = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        System.out.println("=== Generador de IDs persistente (Java) ===");
+        System.out.println("Checkpoint: " + archivo.toAbsolutePath() + " (bloque " + bloque + ")");
+        try (GeneradorIdsPersistente g = GeneradorIdsPersistente.abrir(archivo, bloque)) {
+            System.out.println("Estado al arrancar: " + g.estado());
+            System.out.println("[Ticket] " + g.siguiente("TICKET"));
+            System.out.println("[Ticket] " + g.siguiente("TICKET"));
+            System.out.println("[Auto]   " + g.siguiente("AUTO"));
+            System.out.println("[Lote]   " + g.siguienteLote("TICKET", 2500));
+            System.out.println("TICKET tope arrendado: " + g.topeArrendado("TICKET"));
+        }
+        try (GeneradorIdsPersistente g = GeneradorIdsPersistente.abrir(archivo, bloque)) {
+            System.out.println("Tras reabrir: " + g.estado());
+            System.out.println("[Ticket] " + g.siguiente("TICKET"));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package creacional;
+
+import java.util.List;
+
+/**
+ * Producto del Factory Method de notificaciones (ver NotificacionFactorySimple).
+ */
+public interface Notificacion {
+    void enviar(String destinatario, String mensaje);
+
+    /**
+     * Envía un lote ya agrupado (lo usa DespachadorNotificaciones al vaciar la cola).
+     * Por defecto es un envío por mensaje; un canal con API masiva lo sobreescribe.
+     */
+    default void enviarLote(List<Mensaje> lote) {
+        for (Mensaje m : lote) enviar(m.destinatario, m.texto);
+    }
+
+    /** Mensaje pendiente de envío; encoladoNs sirve para medir la latencia de la cola. */
+    final class Mensaje {
+        public final String destinatario; public final String texto; final long encoladoNs;
+        public Mensaje(String destinatario, String texto) { this(destinatario, texto, System.nanoTime()); }
+        Mensaje(String destinatario, String texto, long encoladoNs) {
+            this.destinatario = destinatario; this.texto = texto; this.encoladoNs = encoladoNs;
+        }
+    }
+}
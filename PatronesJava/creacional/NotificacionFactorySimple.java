@@ -1,51 +1,95 @@
 package creacional;
 
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import soporte.Eventos;
+import soporte.Metricas;
+import soporte.Salida;
 
 /**
  * Factory Method — Notificaciones multicanal (Java)
  * Equivalente del Python "notificacion_metodo_factory.py".
  * Ejecutar:
- *   javac creacional/NotificacionFactorySimple.java
+ *   javac creacional/*.java
  *   java creacional.NotificacionFactorySimple
  */
-interface Notificacion {
-    void enviar(String destinatario, String mensaje);
-}
-
 class NotificacionSMS implements Notificacion {
+    private static final Metricas.Contador enviadas = Metricas.contador("notificaciones.sms.enviadas");
     public void enviar(String destinatario, String mensaje) {
-        System.out.println("[SMS] a " + destinatario + ": " + mensaje);
+        Eventos.NotificacionEnviada e = new Eventos.NotificacionEnviada();
+        e.begin();
+        if (Salida.activa()) System.out.println("[SMS] a " + destinatario + ": " + mensaje);
+        enviadas.incrementar();
+        if (e.shouldCommit()) { e.canal = "sms"; e.commit(); }
     }
 }
 class NotificacionEmail implements Notificacion {
+    private static final Metricas.Contador enviadas = Metricas.contador("notificaciones.email.enviadas");
     public void enviar(String destinatario, String mensaje) {
-        System.out.println("[EMAIL] a " + destinatario + ": " + mensaje);
+        Eventos.NotificacionEnviada e = new Eventos.NotificacionEnviada();
+        e.begin();
+        if (Salida.activa()) System.out.println("[EMAIL] a " + destinatario + ": " + mensaje);
+        enviadas.incrementar();
+        if (e.shouldCommit()) { e.canal = "email"; e.commit(); }
     }
 }
 class NotificacionWhatsApp implements Notificacion {
+    private static final Metricas.Contador enviadas = Metricas.contador("notificaciones.wa.enviadas");
     public void enviar(String destinatario, String mensaje) {
-        System.out.println("[WHATSAPP] a " + destinatario + ": " + mensaje);
+        Eventos.NotificacionEnviada e = new Eventos.NotificacionEnviada();
+        e.begin();
+        if (Salida.activa()) System.out.println("[WHATSAPP] a " + destinatario + ": " + mensaje);
+        enviadas.incrementar();
+        if (e.shouldCommit()) { e.canal = "wa"; e.commit(); }
     }
 }
 
+/**
+ * Registro de canales con instancias ya construidas: las notificaciones no
+ * guardan estado, así que crear() solo busca en el mapa (sin reflexión ni
+ * objetos nuevos). Los canales externos se descubren con ServiceLoader
+ * (META-INF/services/creacional.CanalNotificacion) sin tocar este bloque.
+ */
 class NotificacionFactory {
-    private static final Map<String, Class<? extends Notificacion>> map = new HashMap<>();
+    private static final int MAX_FALLOS_SPI = 32;
+    private static final Map<String, Notificacion> registro = new ConcurrentHashMap<>();
     static {
-        map.put("sms", NotificacionSMS.class);
-        map.put("email", NotificacionEmail.class);
-        map.put("wa", NotificacionWhatsApp.class);
+        registrar("sms", NotificacionSMS::new);
+        registrar("email", NotificacionEmail::new);
+        registrar("wa", NotificacionWhatsApp::new);
+        descubrirExternos();
     }
-    public static Notificacion crear(String canal) {
-        try {
-            Class<? extends Notificacion> cls = map.get(canal.toLowerCase());
-            if (cls == null) throw new IllegalArgumentException("Canal no soportado: " + canal);
-            return cls.getDeclaredConstructor().newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException("No se pudo crear notificación: " + e.getMessage(), e);
+    /** Un proveedor roto se salta sin cortar el descubrimiento de los demás. */
+    private static void descubrirExternos() {
+        Iterator<CanalNotificacion> it = ServiceLoader.load(CanalNotificacion.class).iterator();
+        for (int fallos = 0; fallos < MAX_FALLOS_SPI; ) {    // el iterador no garantiza avanzar tras un error
+            try {
+                if (!it.hasNext()) return;
+                CanalNotificacion c = it.next();
+                registro.putIfAbsent(c.canal().toLowerCase(), c);
+            } catch (ServiceConfigurationError e) {
+                fallos++;
+                System.out.println("Canal externo ignorado: " + e.getMessage());
+            }
         }
     }
+    public static void registrar(String canal, Supplier<? extends Notificacion> fabrica) {
+        registro.put(canal.toLowerCase(), fabrica.get());
+    }
+    public static Notificacion crear(String canal) {
+        Notificacion n = registro.get(canal);                       // nombre canónico: sin copias
+        if (n == null) n = registro.get(canal.toLowerCase());
+        if (n == null) throw new IllegalArgumentException("Canal no soportado: " + canal);
+        return n;
+    }
+    public static Set<String> canales() { return new TreeSet<>(registro.keySet()); }
 }
 
 public class NotificacionFactorySimple {
@@ -56,6 +100,7 @@ public class NotificacionFactorySimple {
             {"wa", "+593911111111"}
         };
         System.out.println("Factory Method — Notificaciones (Java)");
+        System.out.println("Canales: " + NotificacionFactory.canales());
         for (Object[] c : casos) {
             Notificacion n = NotificacionFactory.crear((String)c[0]);
             n.enviar((String)c[1], "Hola Fabo, este es un mensaje de prueba.");
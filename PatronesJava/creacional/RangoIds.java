@@ -0,0 +1,74 @@
+package creacional;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Rango contiguo de IDs reservado de una sola vez con siguienteLote(prefijo, n).
+ * Solo guarda la cabecera ("TICKET-"), el primer y el último valor: los textos
+ * se arman bajo demanda, en un StringBuilder reutilizable si se usa recorrer().
+ */
+public final class RangoIds implements Iterable<String> {
+    private final char[] cabecera; private final long desde, hasta; private final int ancho;
+
+    RangoIds(char[] cabecera, long desde, long hasta, int ancho) {
+        this.cabecera = cabecera; this.desde = desde; this.hasta = hasta; this.ancho = ancho;
+    }
+
+    static void validarLote(int n) {
+        if (n <= 0) throw new IllegalArgumentException("El lote debe tener al menos 1 ID: " + n);
+    }
+
+    public long primero() { return desde; }
+    public long ultimo() { return hasta; }
+    public int tamano() { return (int)(hasta - desde + 1); }
+
+    /** ID i-ésimo del rango (0 = primero) como String nuevo. */
+    public String id(int i) {
+        if (i < 0 || i >= tamano()) throw new IndexOutOfBoundsException("Índice " + i + " fuera del lote de " + tamano());
+        return GeneradorIdsConcurrente.formatear(cabecera, desde + i, ancho);
+    }
+
+    /** Añade el ID i-ésimo a sb, sin crear Strings intermedios. */
+    public StringBuilder escribir(int i, StringBuilder sb) {
+        if (i < 0 || i >= tamano()) throw new IndexOutOfBoundsException("Índice " + i + " fuera del lote de " + tamano());
+        return anexar(sb.append(cabecera), desde + i, ancho);
+    }
+
+    /**
+     * Entrega cada ID en el mismo StringBuilder, reescrito en cada paso.
+     * El consumidor no debe guardar la referencia: si necesita el texto, que llame toString().
+     */
+    public void recorrer(Consumer<? super CharSequence> accion) {
+        StringBuilder sb = new StringBuilder(cabecera.length + 20).append(cabecera);
+        for (long v = desde; v <= hasta; v++) {
+            sb.setLength(cabecera.length);
+            accion.accept(anexar(sb, v, ancho));
+        }
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private long v = desde;
+            public boolean hasNext() { return v <= hasta; }
+            public String next() {
+                if (v > hasta) throw new NoSuchElementException();
+                return GeneradorIdsConcurrente.formatear(cabecera, v++, ancho);
+            }
+        };
+    }
+
+    static StringBuilder anexar(StringBuilder sb, long valor, int ancho) {
+        int digitos = 1;
+        for (long v = valor; v >= 10; v /= 10) digitos++;
+        for (int i = digitos; i < ancho; i++) sb.append('0');
+        return sb.append(valor);
+    }
+
+    @Override
+    public String toString() {
+        return new String(cabecera) + "[" + desde + ".." + hasta + "]";
+    }
+}
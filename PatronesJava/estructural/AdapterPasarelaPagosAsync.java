@@ -0,0 +1,75 @@
+package estructural;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import soporte.Hilos;
+
+/**
+ * Adapter — Pasarela de pagos no bloqueante con idempotencia (Java)
+ * Demo de reintentos durante un pico de checkout y benchmark de pagos/segundo
+ * con clientes simulados de latencia fija: bucle bloqueante vs payAsync sobre
+ * un pool fijo vs un hilo (virtual si hay) por pago.
+ * Ejecutar:
+ *   javac estructural/*.java soporte/*.java
+ *   java estructural.AdapterPasarelaPagosAsync [pagos] [latenciaMs]
+ */
+public class AdapterPasarelaPagosAsync {
+
+    /** Cuenta los cobros que realmente llegan al proveedor. */
+    static final class Contador implements PaymentGateway {
+        final PaymentGateway gw; final AtomicInteger cobros = new AtomicInteger();
+        Contador(PaymentGateway gw){ this.gw = gw; }
+        public String pay(double amount, String currency) throws Exception { cobros.incrementAndGet(); return gw.pay(amount, currency); }
+    }
+
+    static double pagosPorSegundo(AsyncPaymentGateway gw, int pagos) {
+        List<CompletableFuture<String>> fs = new ArrayList<>(pagos);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < pagos; i++) fs.add(gw.payAsync("orden-" + t0 + "-" + i, 25.0, "USD"));
+        CompletableFuture.allOf(fs.toArray(new CompletableFuture<?>[0])).join();
+        return pagos / ((System.nanoTime() - t0) / 1e9);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int pagos = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        long latencia = args.length > 1 ? Long.parseLong(args[1]) : 20;
+        System.out.println("=== Adapter — Pasarela de pagos no bloqueante (Java) ===");
+
+        ExecutorService porPago = Hilos.porTarea("pay");
+        ExecutorService pool = Executors.newFixedThreadPool(16, Hilos.plataforma("pay-pool"));
+        try {
+            Contador stripe = new Contador(new StripeAdapter(new StripeClient(latencia)));
+            NonBlockingPaymentGateway gw = new NonBlockingPaymentGateway(stripe, porPago, 10, TimeUnit.MINUTES);
+            List<CompletableFuture<String>> reintentos = new ArrayList<>();
+            for (int i = 0; i < 5; i++) reintentos.add(gw.payAsync("carrito-42", 25.0, "USD"));
+            for (CompletableFuture<String> f : reintentos) System.out.println("Reintento -> " + f.join());
+            System.out.println("Cobros reales al proveedor: " + stripe.cobros.get());
+            try { gw.payAsync("carrito-42", 99.0, "USD"); }
+            catch (IllegalArgumentException e) { System.out.println("ERR " + e.getMessage()); }
+            try { new NonBlockingPaymentGateway(new BankAdapter(), porPago, 10, TimeUnit.MINUTES).payAsync("c-1", 10, "EUR").join(); }
+            catch (Exception e) { System.out.println("ERR " + e.getCause().getMessage()); }
+
+            System.out.println("------------------------------------------------------------");
+            System.out.println("Benchmark: " + pagos + " pagos, latencia simulada " + latencia + " ms"
+                + (Hilos.hayVirtuales() ? " (hilos virtuales)" : " (sin hilos virtuales: un hilo de plataforma por pago)"));
+            PaymentGateway bloqueante = new StripeAdapter(new StripeClient(latencia));
+            int muestra = Math.max(1, Math.min(pagos, 2_000 / (int) Math.max(1, latencia)));
+            long t0 = System.nanoTime();
+            for (int i = 0; i < muestra; i++) bloqueante.pay(25.0, "USD");
+            System.out.printf("%-32s %10.0f pagos/s%n", "pay() en bucle", muestra / ((System.nanoTime() - t0) / 1e9));
+            System.out.printf("%-32s %10.0f pagos/s%n", "payAsync, pool fijo de 16",
+                pagosPorSegundo(new NonBlockingPaymentGateway(bloqueante, pool, 1, TimeUnit.MINUTES), pagos));
+            System.out.printf("%-32s %10.0f pagos/s%n", "payAsync, un hilo por pago",
+                pagosPorSegundo(new NonBlockingPaymentGateway(bloqueante, porPago, 1, TimeUnit.MINUTES), pagos));
+        } finally {
+            porPago.shutdown();
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package estructural;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adapter — Enrutador de pagos con latencia y circuit breaker (Java)
+ * Tres adaptadores detrás de un PaymentRouter: se filtra por moneda, se elige
+ * el de mejor latencia/error reciente y, cuando el banco cae, deja de recibir
+ * tráfico: primero por su puntaje y, tras unos fallos, por su circuito abierto.
+ * Ejecutar:
+ *   javac estructural/*.java soporte/*.java
+ *   java estructural.AdapterPasarelaPagosRouter
+ */
+public class AdapterPasarelaPagosRouter {
+
+    /**
+     * Proveedor que se puede "tirar" para la demo: cada pago tarda y el proveedor lo rechaza sin
+     * cobrar, así el router puede pasar al siguiente. Con ambiguo, en cambio, falla con un timeout
+     * (pudo haber cobrado) y el router lo propaga sin reintentar.
+     */
+    static final class Intermitente implements PaymentGateway {
+        final PaymentGateway gw; volatile boolean caido, ambiguo; int llamadas;
+        Intermitente(PaymentGateway gw){ this.gw = gw; }
+        public String pay(double amount, String currency) throws Exception {
+            llamadas++;
+            if (ambiguo) { LatenciaSimulada.esperar(30); throw new java.io.IOException("timeout del proveedor"); }
+            if (caido) { LatenciaSimulada.esperar(30); throw new PagoNoEnviadoException("proveedor no disponible"); }
+            return gw.pay(amount, currency);
+        }
+        public boolean supports(String currency) { return gw.supports(currency); }
+    }
+
+    private static void lote(PaymentRouter router, String titulo, int pagos, String moneda) {
+        Map<String,Integer> porProveedor = new TreeMap<>();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < pagos; i++) {
+            try { porProveedor.merge(router.pay(10.0, moneda).split("_")[0], 1, Integer::sum); }
+            catch (Exception e) { porProveedor.merge("ERR " + e.getMessage(), 1, Integer::sum); }
+        }
+        System.out.printf("%-28s %-4s %6.1f ms  %s%n", titulo, moneda, (System.nanoTime() - t0) / 1e6, porProveedor);
+    }
+
+    public static void main(String[] args) {
+        System.out.println("=== Adapter — Enrutador de pagos (Java) ===");
+        Intermitente bank = new Intermitente(new BankAdapter(new BankClient(1)));
+        PaymentRouter router = new PaymentRouter(32, 3, 200, TimeUnit.MILLISECONDS)
+            .agregar("stripe", new StripeAdapter(new StripeClient(4)))
+            .agregar("paypal", new PaypalAdapter(new PaypalClient(2)))
+            .agregar("bank", bank);
+
+        lote(router, "Calentamiento", 30, "USD");
+        lote(router, "Todos arriba", 50, "USD");
+        lote(router, "Solo PayPal/Stripe", 20, "EUR");
+        lote(router, "Solo Stripe", 10, "JPY");
+        bank.caido = true;
+        int antes = bank.llamadas;
+        lote(router, "Banco caído", 300, "USD");
+        System.out.println("Llamadas al banco caído: " + (bank.llamadas - antes) + " de 300");
+        System.out.print(router.estado());
+        bank.caido = false;
+        LatenciaSimulada.esperar(250);
+        bank.ambiguo = true;
+        lote(router, "Banco con timeouts", 50, "USD");
+        bank.ambiguo = false;
+        LatenciaSimulada.esperar(250);
+        lote(router, "Banco recuperado", 300, "USD");
+        lote(router, "Banco recuperado (más)", 1000, "USD");
+        System.out.print(router.estado());
+    }
+}
@@ -1,5 +1,9 @@
 package estructural;
 
+import soporte.Eventos;
+import soporte.Metricas;
+import soporte.Salida;
+
 /**
  * Adapter — Pasarela de pagos (Java)
  * Equivalente del Python "pasarela_pagos_adapter.py".
@@ -8,57 +12,148 @@ package estructural;
  *   java estructural.AdapterPasarelaPagosSimple
  */
 // --- SDKs simulados ---
+// Un cliente por adaptador, reutilizado entre pagos; latenciaMs simula la ida y vuelta al proveedor.
 class StripeClient {
+    private final long latenciaMs;
+    StripeClient(){ this(0); }
+    StripeClient(long latenciaMs){ this.latenciaMs = latenciaMs; }
     String createCharge(int amountCents, String currency) {
+        LatenciaSimulada.esperar(latenciaMs);
         if (amountCents <= 0) throw new IllegalArgumentException("Stripe: amount > 0");
         return "stripe_tx_" + amountCents + "_" + currency;
     }
 }
 class PaypalClient {
+    private final long latenciaMs;
+    PaypalClient(){ this(0); }
+    PaypalClient(long latenciaMs){ this.latenciaMs = latenciaMs; }
     String makePayment(double total, String curr) {
+        LatenciaSimulada.esperar(latenciaMs);
         if (total <= 0) throw new IllegalArgumentException("PayPal: total inválido");
         return "paypal_tx_" + Math.round(total) + "_" + curr;
     }
 }
 class BankClient {
+    private final long latenciaMs;
+    BankClient(){ this(0); }
+    BankClient(long latenciaMs){ this.latenciaMs = latenciaMs; }
     String transferUsd(double amountUsd) {
+        LatenciaSimulada.esperar(latenciaMs);
         if (amountUsd <= 0) throw new IllegalArgumentException("Bank: monto inválido");
         return "bank_ref_" + (int)(amountUsd * 100);
     }
 }
+class LatenciaSimulada {
+    static void esperar(long ms) {
+        if (ms <= 0) return;
+        try { Thread.sleep(ms); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); throw new IllegalStateException("Pago interrumpido", e); }
+    }
+}
 // --- Interfaz común ---
-interface PaymentGateway { String pay(double amount, String currency) throws Exception; }
+interface PaymentGateway {
+    String pay(double amount, String currency) throws Exception;
+    /** Restricción de moneda del proveedor, consultable sin provocar la excepción de pay(). */
+    default boolean supports(String currency) { return true; }
+    /** Cobro en unidades menores (centavos); los adaptadores que hablan en centavos evitan el double. */
+    default String payMinor(long amountMinor, String currency) throws Exception { return pay(amountMinor / 100.0, currency); }
+}
+/**
+ * Métricas y evento JFR de las llamadas de un proveedor: pagos.{proveedor}.ok/error,
+ * pagos.{proveedor}.rechazado (moneda no soportada) y la latencia pagos.{proveedor}. Cada adaptador tiene una instancia estática.
+ */
+final class MedicionPago {
+    private final String proveedor;
+    private final Metricas.Contador ok, error, rechazado;
+    private final Metricas.Latencia latencia;
+    MedicionPago(String proveedor) {
+        this.proveedor = proveedor;
+        ok = Metricas.contador("pagos." + proveedor + ".ok");
+        error = Metricas.contador("pagos." + proveedor + ".error");
+        rechazado = Metricas.contador("pagos." + proveedor + ".rechazado");
+        latencia = Metricas.latencia("pagos." + proveedor);
+    }
+    void fin(Eventos.LlamadaPago e, long t0, String moneda, boolean exito) {
+        latencia.registrar(System.nanoTime() - t0);
+        (exito ? ok : error).incrementar();
+        if (e.shouldCommit()) { e.proveedor = proveedor; e.moneda = moneda; e.ok = exito; e.commit(); }
+    }
+    /** Moneda no soportada: se rechaza antes de llamar al proveedor, no es una falla suya. */
+    void rechazo() { rechazado.incrementar(); }
+}
 // --- Adaptadores ---
 class StripeAdapter implements PaymentGateway {
+    private final StripeClient client;
+    StripeAdapter(){ this(new StripeClient()); }
+    StripeAdapter(StripeClient client){ this.client = client; }
+    private static final MedicionPago medicion = new MedicionPago("stripe");
     public String pay(double amount, String currency) {
-        return new StripeClient().createCharge((int)Math.round(amount*100), currency.toUpperCase());
+        Eventos.LlamadaPago e = new Eventos.LlamadaPago(); e.begin();
+        long t0 = System.nanoTime(); boolean ok = false;
+        try {
+            String ref = client.createCharge((int)Math.round(amount*100), currency.toUpperCase());
+            ok = true;
+            return ref;
+        } finally { medicion.fin(e, t0, currency, ok); }
+    }
+    public String payMinor(long amountMinor, String currency) {
+        Eventos.LlamadaPago e = new Eventos.LlamadaPago(); e.begin();
+        long t0 = System.nanoTime(); boolean ok = false;
+        try {
+            String ref = client.createCharge(Math.toIntExact(amountMinor), currency.toUpperCase());
+            ok = true;
+            return ref;
+        } finally { medicion.fin(e, t0, currency, ok); }
     }
 }
 class PaypalAdapter implements PaymentGateway {
+    private final PaypalClient client;
+    PaypalAdapter(){ this(new PaypalClient()); }
+    PaypalAdapter(PaypalClient client){ this.client = client; }
+    private static final MedicionPago medicion = new MedicionPago("paypal");
     public String pay(double amount, String currency) {
-        String curr = currency.toLowerCase();
-        if (!curr.equals("usd") && !curr.equals("eur") && !curr.equals("gbp"))
-            throw new IllegalArgumentException("PayPal no soporta " + currency);
-        return new PaypalClient().makePayment(amount, curr);
+        if (!supports(currency)) { medicion.rechazo(); throw new IllegalArgumentException("PayPal no soporta " + currency); }
+        Eventos.LlamadaPago e = new Eventos.LlamadaPago(); e.begin();
+        long t0 = System.nanoTime(); boolean ok = false;
+        try {
+            String ref = client.makePayment(amount, currency.toLowerCase());
+            ok = true;
+            return ref;
+        } finally { medicion.fin(e, t0, currency, ok); }
+    }
+    public boolean supports(String currency) {
+        return "usd".equalsIgnoreCase(currency) || "eur".equalsIgnoreCase(currency) || "gbp".equalsIgnoreCase(currency);
     }
 }
 class BankAdapter implements PaymentGateway {
+    private final BankClient client;
+    BankAdapter(){ this(new BankClient()); }
+    BankAdapter(BankClient client){ this.client = client; }
+    private static final MedicionPago medicion = new MedicionPago("bank");
     public String pay(double amount, String currency) {
-        if (!"USD".equalsIgnoreCase(currency))
-            throw new IllegalArgumentException("Banco: solo USD");
-        return new BankClient().transferUsd(amount);
+        if (!supports(currency)) { medicion.rechazo(); throw new IllegalArgumentException("Banco: solo USD"); }
+        Eventos.LlamadaPago e = new Eventos.LlamadaPago(); e.begin();
+        long t0 = System.nanoTime(); boolean ok = false;
+        try {
+            String ref = client.transferUsd(amount);
+            ok = true;
+            return ref;
+        } finally { medicion.fin(e, t0, currency, ok); }
     }
+    public boolean supports(String currency) { return "USD".equalsIgnoreCase(currency); }
 }
 
 public class AdapterPasarelaPagosSimple {
     private static void caso(String prov, double monto, String moneda, PaymentGateway gw) {
-        System.out.println("------------------------------------------------------------");
-        System.out.println(prov.toUpperCase() + " — " + monto + " " + moneda);
+        if (Salida.activa()) {
+            System.out.println("------------------------------------------------------------");
+            System.out.println(prov.toUpperCase() + " — " + monto + " " + moneda);
+        }
         try {
             String ref = gw.pay(monto, moneda);
-            System.out.println("OK  Pago exitoso. Ref: " + ref);
+            if (Salida.activa()) System.out.println("OK  Pago exitoso. Ref: " + ref);
         } catch (Exception e) {
-            System.out.println("ERR " + e.getMessage());
+            if (Salida.activa()) System.out.println("ERR " + e.getMessage());
         }
     }
     public static void main(String[] args) {
@@ -0,0 +1,12 @@
+package estructural;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Variante no bloqueante de PaymentGateway.
+ * idempotencyKey la elige quien cobra (p.ej. id del carrito): reintentos con la
+ * misma clave devuelven la misma referencia en vez de volver a cobrar.
+ */
+interface AsyncPaymentGateway {
+    CompletableFuture<String> payAsync(String idempotencyKey, double amount, String currency);
+}
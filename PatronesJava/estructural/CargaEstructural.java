@@ -0,0 +1,30 @@
+package estructural;
+
+import soporte.Escenario;
+
+/**
+ * Escenarios de carga de los patrones estructurales, para el modo headless de Main (ver soporte.Carga).
+ */
+public final class CargaEstructural {
+    private CargaEstructural() { }
+
+    /** Adapter: pay() rotando entre Stripe, PayPal y Banco; el cobro en EUR al banco cuenta como error. */
+    public static Escenario pagos() {
+        PaymentGateway[] gws = {new StripeAdapter(), new PaypalAdapter(), new BankAdapter()};
+        String[] monedas = {"USD", "USD", "EUR", "USD"};
+        return hilo -> {
+            int[] i = {hilo};
+            return () -> { int k = i[0]++; gws[k % gws.length].pay(25.0, monedas[k % monedas.length]); };
+        };
+    }
+
+    /** Facade: snapshot() con refresco en segundo plano, que es como lo consultaría un endpoint /health. */
+    public static Escenario healthcheck() {
+        HealthFacade f = new HealthFacade();
+        f.iniciarRefresco(500);
+        return new Escenario() {
+            public Operacion paraHilo(int hilo) { return f::snapshot; }
+            @Override public void close() { f.close(); }
+        };
+    }
+}
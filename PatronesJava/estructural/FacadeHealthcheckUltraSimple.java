@@ -0,0 +1,305 @@
+package estructural;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import soporte.Hilos;
+import soporte.Histograma;
+import soporte.Metricas;
+import soporte.Salida;
+
+/**
+ * Facade — Healthcheck simple (Java)
+ * Equivalente del Python "healhty_sistem_facade.py".
+ * Nota: en Python se usó sqlite3; en Java evitamos librerías externas.
+ *       Para la "DB" usamos un contador persistente mapeado en memoria como
+ *       verificación básica de escritura/lectura (comportamiento similar para consola).
+ *       La sonda de disco mantiene abierto un bloque preasignado (por defecto
+ *       hc_probe.dat en java.io.tmpdir; conviene apuntarlo al volumen a vigilar)
+ *       en vez de crear y borrar un archivo por chequeo, y mide escritura, fsync
+ *       y lectura en histogramas (ver metricas()).
+ *
+ * Las tres sondas corren en paralelo, cada una con su timeout, y el resultado
+ * se cachea ttlMs: el balanceador que llama cada segundo recibe la foto en
+ * memoria. Opcionalmente un hilo la refresca en segundo plano. El destino de
+ * la sonda de red es configurable (p.ej. un servicio local de reemplazo).
+ * La sonda que vence se interrumpe; si aun así sigue colgada (DNS y connect no
+ * atienden la interrupción), no se lanza otra del mismo tipo hasta que termine.
+ *
+ * Ejecutar:
+ *   javac estructural/*.java soporte/*.java
+ *   java estructural.FacadeHealthcheckUltraSimple [hostDns] [hostTcp] [puertoTcp]
+ */
+class HealthFacade implements AutoCloseable {
+    static class Resultado { final boolean ok; final String detalle;
+        Resultado(boolean ok, String d){ this.ok = ok; this.detalle = d; } }
+
+    /** Foto de las tres sondas, tomada en tomadoNs (System.nanoTime). */
+    static final class Snapshot {
+        final Resultado disco, red, db; final long tomadoNs;
+        Snapshot(Resultado disco, Resultado red, Resultado db, long tomadoNs) {
+            this.disco = disco; this.red = red; this.db = db; this.tomadoNs = tomadoNs;
+        }
+        boolean ok() { return disco.ok && red.ok && db.ok; }
+    }
+
+    private final String hostDns, hostTcp; private final int puertoTcp;
+    private final long timeoutSondaMs, ttlNs;
+    private final ExecutorService sondas = Hilos.porTarea("health");
+    private final AtomicReference<CompletableFuture<Snapshot>> enCurso = new AtomicReference<>();
+    /** Tipos de sonda cuyo hilo sigue corriendo (cancel(true) da el Future por terminado aunque el hilo siga). */
+    private final Set<String> enVuelo = ConcurrentHashMap.newKeySet();
+    private volatile Snapshot ultimo;
+    private ScheduledExecutorService refresco;
+    private final Path archivoDisco;
+    private final Path archivoDB = Paths.get(System.getProperty("java.io.tmpdir"), "health_demo.counter");
+    private final Histograma escritura = new Histograma(), fsync = new Histograma(), lectura = new Histograma(), db = new Histograma();
+    private static final AtomicInteger instancias = new AtomicInteger();
+    /** health.{n}. por instancia: otra fachada no pisa estos histogramas en Metricas; close() los retira. */
+    private final String prefijoMetricas = "health." + instancias.incrementAndGet() + ".";
+    private SondaDisco sondaDisco;
+    private MappedByteBuffer contadorDB;
+
+    HealthFacade() { this("example.com", "8.8.8.8", 53, 2_000, 1_000); }
+
+    /**
+     * @param timeoutSondaMs tiempo máximo por sonda; la que no responde cuenta como ERROR
+     * @param ttlMs          cuánto se reutiliza una foto antes de volver a sondear
+     */
+    HealthFacade(String hostDns, String hostTcp, int puertoTcp, long timeoutSondaMs, long ttlMs) {
+        this(hostDns, hostTcp, puertoTcp, timeoutSondaMs, ttlMs, Paths.get(System.getProperty("java.io.tmpdir"), "hc_probe.dat"));
+    }
+
+    /** @param archivoDisco bloque de la sonda de disco: debe estar en el volumen cuya salud se quiere medir */
+    HealthFacade(String hostDns, String hostTcp, int puertoTcp, long timeoutSondaMs, long ttlMs, Path archivoDisco) {
+        this.archivoDisco = archivoDisco;
+        this.hostDns = hostDns; this.hostTcp = hostTcp; this.puertoTcp = puertoTcp;
+        this.timeoutSondaMs = timeoutSondaMs; this.ttlNs = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        metricas().forEach((k, h) -> Metricas.exponer(prefijoMetricas + k, h));
+    }
+
+    private static final Metricas.Contador saludables = Metricas.contador("health.saludable"), problemas = Metricas.contador("health.problemas");
+
+    /** Escribe, sincroniza (fsync) y relee el bloque de la sonda; cada fase va a su histograma. */
+    public Resultado checkDisco() {
+        try {
+            SondaDisco sd = sondaDisco();
+            boolean ok = sd.probar(escritura, fsync, lectura);
+            return new Resultado(ok, "Escritura/fsync/lectura en " + sd.archivo.getFileName() + " " + (ok ? "OK" : "falló (lectura distinta)"));
+        } catch (IOException e) {
+            return new Resultado(false, "Sonda de disco: " + e);
+        }
+    }
+
+    public Resultado checkRed() {
+        try {
+            InetAddress.getByName(hostDns); // DNS
+            try (Socket s = new Socket()) {
+                s.connect(new InetSocketAddress(hostTcp, puertoTcp), (int) Math.min(800, timeoutSondaMs));
+            }
+            return new Resultado(true, "DNS y conexión TCP breve OK");
+        } catch (Exception e) {
+            return new Resultado(false, "Fallo de red: " + e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    public Resultado checkDBSimulada() {
+        // "DB" simple: un contador de 8 bytes mapeado en memoria, incrementado y sincronizado en cada chequeo
+        try {
+            long t0 = System.nanoTime();
+            long n;
+            synchronized (this) {
+                if (contadorDB == null) contadorDB = mapear(archivoDB, 8);
+                n = contadorDB.getLong(0) + 1;
+                contadorDB.putLong(0, n);
+                contadorDB.force();
+            }
+            db.registrar(System.nanoTime() - t0);
+            return new Resultado(true, "db='" + archivoDB.toAbsolutePath() + "' filas=" + n);
+        } catch (IOException | RuntimeException e) {
+            return new Resultado(false, "DB simulada error: " + e);
+        }
+    }
+
+    private synchronized SondaDisco sondaDisco() throws IOException {
+        if (sondaDisco == null || !sondaDisco.abierta()) sondaDisco = new SondaDisco(archivoDisco);   // interrumpirla cierra el canal
+        return sondaDisco;
+    }
+
+    private static MappedByteBuffer mapear(Path archivo, int tam) throws IOException {
+        try (FileChannel ch = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, tam);   // el mapeo sigue vivo tras cerrar el canal
+        }
+    }
+
+    /** Latencias acumuladas de las sondas de disco (escritura, fsync, lectura) y de la DB simulada. */
+    public Map<String, Histograma> metricas() {
+        Map<String, Histograma> m = new LinkedHashMap<>();
+        m.put("disco.escritura", escritura);
+        m.put("disco.fsync", fsync);
+        m.put("disco.lectura", lectura);
+        m.put("db.incremento", db);
+        return m;
+    }
+
+    /** Foto vigente si tiene menos de ttlMs; si no, sondea (una sola ronda aunque lleguen muchos a la vez). */
+    public Snapshot snapshot() {
+        Snapshot s = ultimo;
+        if (s != null && System.nanoTime() - s.tomadoNs < ttlNs) return s;
+        return refrescar().join();
+    }
+
+    /** Lanza una ronda de sondas o se une a la que ya está en curso. */
+    CompletableFuture<Snapshot> refrescar() {
+        while (true) {
+            CompletableFuture<Snapshot> f = enCurso.get();
+            if (f != null) return f;
+            CompletableFuture<Snapshot> nuevo = new CompletableFuture<>();
+            if (!enCurso.compareAndSet(null, nuevo)) continue;
+            CompletableFuture<Resultado> d = sonda(this::checkDisco, "disco"), r = sonda(this::checkRed, "red"), b = sonda(this::checkDBSimulada, "db");
+            CompletableFuture.allOf(d, r, b).thenRun(() -> {
+                Snapshot s = new Snapshot(d.join(), r.join(), b.join(), System.nanoTime());
+                (s.ok() ? saludables : problemas).incrementar();
+                ultimo = s;
+                enCurso.set(null);
+                nuevo.complete(s);
+            });
+            return nuevo;
+        }
+    }
+
+    private CompletableFuture<Resultado> sonda(Supplier<Resultado> check, String nombre) {
+        if (!enVuelo.add(nombre))
+            return CompletableFuture.completedFuture(new Resultado(false, nombre + ": la sonda anterior sigue sin responder"));
+        CompletableFuture<Resultado> r = new CompletableFuture<>();
+        AtomicBoolean arrancada = new AtomicBoolean();   // quien la gana (la tarea o el timeout) quita la marca de enVuelo
+        Future<?> tarea;
+        try {
+            tarea = sondas.submit(() -> {
+                if (!arrancada.compareAndSet(false, true)) return;
+                try { r.complete(check.get()); }
+                catch (Throwable e) { r.complete(new Resultado(false, nombre + " falló: " + e)); }
+                finally { enVuelo.remove(nombre); }
+            });
+        } catch (RuntimeException e) {
+            enVuelo.remove(nombre);
+            throw e;
+        }
+        Resultado vencida = new Resultado(false, "Sin respuesta en " + timeoutSondaMs + " ms");
+        r.completeOnTimeout(vencida, timeoutSondaMs, TimeUnit.MILLISECONDS)
+            .thenAccept(x -> {
+                if (x != vencida) return;
+                tarea.cancel(true);
+                if (arrancada.compareAndSet(false, true)) enVuelo.remove(nombre);   // venció sin llegar a correr
+            });
+        return r;
+    }
+
+    /** Refresca la foto cada periodoMs en segundo plano, así snapshot() nunca espera a las sondas. */
+    public synchronized void iniciarRefresco(long periodoMs) {
+        if (refresco != null) return;
+        refresco = Executors.newSingleThreadScheduledExecutor(Hilos.plataforma("health-refresco"));
+        refresco.scheduleWithFixedDelay(() -> refrescar().join(), 0, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        metricas().forEach((k, h) -> Metricas.retirar(prefijoMetricas + k, h));
+        if (refresco != null) refresco.shutdownNow();
+        sondas.shutdownNow();
+        if (sondaDisco != null) try { sondaDisco.close(); } catch (IOException ignored) {}
+    }
+
+    /** Imprime la foto actual; con la salida apagada solo la refresca (los contadores health.* siguen contando). */
+    public void check() {
+        Snapshot s = snapshot();
+        if (!Salida.activa()) return;
+        System.out.println("=== Healthcheck ===");
+        Resultado d = s.disco, r = s.red, b = s.db;
+        boolean ok = s.ok();
+        System.out.println("DISCO : " + (d.ok ? "OK" : "ERROR") + " - " + d.detalle);
+        System.out.println("RED   : " + (r.ok ? "OK" : "ERROR") + " - " + r.detalle);
+        System.out.println("DB    : " + (b.ok ? "OK" : "ERROR") + " - " + b.detalle);
+        System.out.println("Resultado global: " + (ok ? "SALUDABLE" : "PROBLEMAS"));
+    }
+}
+
+/** Archivo de sonda abierto una sola vez: un bloque preasignado que se reescribe en cada chequeo. */
+class SondaDisco implements AutoCloseable {
+    private static final int BLOQUE = 4096;
+    final Path archivo;
+    private final FileChannel canal;
+    private final ByteBuffer salida = ByteBuffer.allocateDirect(BLOQUE), entrada = ByteBuffer.allocateDirect(BLOQUE);
+    private long secuencia;
+
+    SondaDisco(Path archivo) throws IOException {
+        this.archivo = archivo;
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (canal.size() < BLOQUE) { canal.write(ByteBuffer.allocate(BLOQUE), 0); canal.force(true); }
+    }
+
+    /** Una vuelta de la sonda; true si lo releído coincide con lo escrito. */
+    synchronized boolean probar(Histograma hEscritura, Histograma hFsync, Histograma hLectura) throws IOException {
+        long marca = ++secuencia;
+        salida.clear();
+        while (salida.hasRemaining()) salida.putLong(marca);
+        salida.flip();
+        long t0 = System.nanoTime();
+        for (long pos = 0; salida.hasRemaining(); ) pos += canal.write(salida, pos);
+        long t1 = System.nanoTime();
+        canal.force(false);
+        long t2 = System.nanoTime();
+        entrada.clear();
+        for (long pos = 0; entrada.hasRemaining(); ) { int n = canal.read(entrada, pos); if (n < 0) break; pos += n; }
+        long t3 = System.nanoTime();
+        hEscritura.registrar(t1 - t0); hFsync.registrar(t2 - t1); hLectura.registrar(t3 - t2);
+        entrada.flip();
+        return entrada.remaining() == BLOQUE && entrada.getLong(0) == marca && entrada.getLong(BLOQUE - 8) == marca;
+    }
+
+    boolean abierta() { return canal.isOpen(); }
+
+    @Override
+    public void close() throws IOException { canal.close(); }
+}
+
+public class FacadeHealthcheckUltraSimple {
+    public static void main(String[] args) {
+        HealthFacade f = args.length >= 3
+            ? new HealthFacade(args[0], args[1], Integer.parseInt(args[2]), 2_000, 1_000)
+            : new HealthFacade();
+        try (f) {
+            long t0 = System.nanoTime();
+            f.check();
+            System.out.printf("Primera llamada (sondas en paralelo): %.1f ms%n", (System.nanoTime() - t0) / 1e6);
+            t0 = System.nanoTime();
+            f.snapshot();
+            System.out.printf("Segunda llamada (foto en caché):     %.3f ms%n", (System.nanoTime() - t0) / 1e6);
+            for (int i = 0; i < 200; i++) { f.checkDisco(); f.checkDBSimulada(); }
+            System.out.println("Latencias tras 200 sondas extra:");
+            f.metricas().forEach((k, h) -> System.out.printf("  %-16s %s%n", k, h));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package estructural;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caché de idempotencia en memoria con TTL.
+ * Guarda el futuro (no solo el resultado) para que un reintento que llega
+ * mientras el primer cobro sigue en vuelo se una a él. Los cobros fallidos se
+ * quitan al fallar, así el siguiente reintento vuelve a intentar. Las entradas
+ * vencidas se limpian al consultarlas y con un barrido cada {@code BARRIDO} altas.
+ * Cada entrada guarda la huella del pedido (monto y moneda): reusar la clave con
+ * otro pedido se rechaza en vez de devolver el cobro anterior. Cada llamador
+ * recibe su propia copia del futuro, así cancelarla o completarla no altera lo
+ * que ven los reintentos siguientes.
+ */
+class IdempotencyCache {
+    private static final int BARRIDO = 1024;
+
+    private static final class Entrada {
+        final CompletableFuture<String> futuro; final String huella; final long venceNs;
+        Entrada(CompletableFuture<String> futuro, String huella, long venceNs){
+            this.futuro = futuro; this.huella = huella; this.venceNs = venceNs;
+        }
+    }
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final long ttlNs;
+    private final AtomicInteger altas = new AtomicInteger();
+
+    IdempotencyCache(long ttl, TimeUnit unidad) {
+        if (ttl <= 0) throw new IllegalArgumentException("TTL debe ser > 0");
+        this.ttlNs = unidad.toNanos(ttl);
+    }
+
+    /**
+     * Devuelve una copia del futuro ya registrado para la clave o registra el que crea {@code cobro}.
+     * Lanza IllegalArgumentException si la clave sigue vigente con otra {@code huella}.
+     */
+    CompletableFuture<String> obtenerOCobrar(String clave, String huella, Supplier<CompletableFuture<String>> cobro) {
+        long ahora = System.nanoTime();
+        Entrada e = entradas.get(clave);
+        if (e != null && e.venceNs - ahora > 0) return copia(clave, huella, e);
+        boolean[] nueva = {false};
+        e = entradas.compute(clave, (k, actual) -> {
+            if (actual != null && actual.venceNs - ahora > 0) return actual;
+            nueva[0] = true;
+            return new Entrada(new CompletableFuture<>(), huella, ahora + ttlNs);
+        });
+        if (nueva[0]) {
+            Entrada registrada = e;
+            try {
+                cobro.get().whenComplete((ref, error) -> {
+                    if (error != null) { entradas.remove(clave, registrada); registrada.futuro.completeExceptionally(error); }
+                    else registrada.futuro.complete(ref);
+                });
+            } catch (RuntimeException error) {   // p.ej. executor saturado: no dejar la clave colgada
+                entradas.remove(clave, registrada);
+                registrada.futuro.completeExceptionally(error);
+            }
+            if ((altas.incrementAndGet() & (BARRIDO - 1)) == 0) barrer(ahora);
+        }
+        return copia(clave, huella, e);
+    }
+
+    private static CompletableFuture<String> copia(String clave, String huella, Entrada e) {
+        if (!e.huella.equals(huella))
+            throw new IllegalArgumentException("La clave " + clave + " ya se usó con otro pedido (" + e.huella + ")");
+        return e.futuro.copy();
+    }
+
+    void barrer(long ahora) { entradas.values().removeIf(x -> x.venceNs - ahora <= 0 && x.futuro.isDone()); }
+    int tamano() { return entradas.size(); }
+}
@@ -0,0 +1,236 @@
+package estructural;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import soporte.Hilos;
+
+/**
+ * Adapter — Liquidación masiva de pagos (Java)
+ * Lee un CSV "proveedor,monto,moneda" línea a línea, convierte el monto a
+ * centavos (long) sin pasar por double y agrupa por proveedor+moneda en
+ * arreglos primitivos. Cada grupo lleno (un "chunk") se cobra en paralelo a
+ * través de su adaptador con payMinor. Un semáforo limita los chunks en vuelo,
+ * así la memoria queda acotada (chunks × tamaño) sin importar el tamaño del lote.
+ *
+ * Archivo de resultado, una línea por pago:  nroLinea,OK,referencia | nroLinea,ERR,motivo
+ * (referencia y motivo van entre comillas CSV si traen comas, comillas o saltos de línea).
+ *
+ * Ejecutar:
+ *   javac estructural/*.java soporte/*.java
+ *   java estructural.LiquidacionPagos [pagos] [tamChunk]
+ */
+public class LiquidacionPagos {
+
+    /** Pagos pendientes de un proveedor+moneda: dos arreglos primitivos paralelos. */
+    private static final class Chunk {
+        final long[] lineas, montos; int n;
+        Chunk(int capacidad) { lineas = new long[capacidad]; montos = new long[capacidad]; }
+    }
+
+    /** Grupo proveedor+moneda: su adaptador (null si no lo atiende nadie), el chunk abierto y sus totales. */
+    private static final class Grupo {
+        final String proveedor, moneda; final PaymentGateway gw; final Totales totales = new Totales(); Chunk abierto;
+        Grupo(String proveedor, String moneda, PaymentGateway gw) { this.proveedor = proveedor; this.moneda = moneda; this.gw = gw; }
+        /** Compara contra la línea sin crear Strings (atajo para líneas seguidas del mismo grupo). */
+        boolean es(String linea, int c1, int c2) {
+            return c1 == proveedor.length() && linea.regionMatches(0, proveedor, 0, c1)
+                && linea.length() - c2 - 1 == moneda.length() && linea.regionMatches(true, c2 + 1, moneda, 0, moneda.length());
+        }
+    }
+
+    /** Totales por proveedor+moneda. */
+    public static final class Totales {
+        final LongAdder ok = new LongAdder(), fallidos = new LongAdder(), montoOk = new LongAdder();
+        @Override public String toString() {
+            long m = montoOk.sum();
+            return "ok=" + ok.sum() + " fallidos=" + fallidos.sum() + " monto=" + (m / 100) + "." + (m % 100 < 10 ? "0" : "") + (m % 100);
+        }
+    }
+
+    public static final class Resumen {
+        public final long leidos, invalidos, ok, fallidos; public final double segundos;
+        public final Map<String, Totales> porGrupo;
+        Resumen(long leidos, long invalidos, Map<String, Totales> porGrupo, double segundos) {
+            this.leidos = leidos; this.invalidos = invalidos; this.porGrupo = porGrupo; this.segundos = segundos;
+            long o = 0, f = 0;
+            for (Totales t : porGrupo.values()) { o += t.ok.sum(); f += t.fallidos.sum(); }
+            this.ok = o; this.fallidos = f;
+        }
+        public double pagosPorSegundo() { return (ok + fallidos) / Math.max(1e-9, segundos); }
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Leídos %d | inválidos %d | OK %d | fallidos %d | %.2f s | %.0f pagos/s%n",
+                leidos, invalidos, ok, fallidos, segundos, pagosPorSegundo()));
+            porGrupo.forEach((k, t) -> sb.append("  ").append(String.format("%-14s", k)).append(t).append('\n'));
+            return sb.toString();
+        }
+    }
+
+    private final Map<String, PaymentGateway> proveedores;
+    private final ExecutorService executor;
+    private final int tamChunk, maxEnVuelo;
+    private final Semaphore enVuelo;
+    private final AtomicReference<IOException> errorEscritura = new AtomicReference<>();
+
+    /** maxEnVuelo: cuántos chunks pueden estar cobrándose o en cola a la vez. */
+    public LiquidacionPagos(Map<String, PaymentGateway> proveedores, ExecutorService executor, int tamChunk, int maxEnVuelo) {
+        if (tamChunk <= 0 || maxEnVuelo <= 0) throw new IllegalArgumentException("tamChunk y maxEnVuelo deben ser > 0");
+        this.proveedores = proveedores; this.executor = executor; this.tamChunk = tamChunk; this.maxEnVuelo = maxEnVuelo;
+        this.enVuelo = new Semaphore(maxEnVuelo);
+    }
+
+    public Resumen liquidar(Path entrada, Path resultado) throws IOException, InterruptedException {
+        long t0 = System.nanoTime(), leidos = 0, invalidos = 0;
+        Map<String, Grupo> grupos = new HashMap<>();   // solo pares con adaptador: la basura no se acumula
+        Grupo ultimo = null;
+        try (BufferedReader in = Files.newBufferedReader(entrada, StandardCharsets.UTF_8);
+             BufferedWriter out = Files.newBufferedWriter(resultado, StandardCharsets.UTF_8)) {
+            Throwable fallo = null;
+            try {
+                String linea;
+                while ((linea = in.readLine()) != null) {
+                    leidos++;
+                    int c1 = linea.indexOf(','), c2 = c1 < 0 ? -1 : linea.indexOf(',', c1 + 1);
+                    long monto = c2 < 0 ? -1 : centavos(linea, c1 + 1, c2);
+                    if (monto <= 0) { invalidos++; escribirError(out, leidos, "línea inválida"); continue; }
+                    Grupo g = ultimo != null && ultimo.es(linea, c1, c2) ? ultimo : null;
+                    if (g == null) {
+                        String prov = linea.substring(0, c1), moneda = linea.substring(c2 + 1).toUpperCase();
+                        g = grupos.get(prov + "/" + moneda);
+                        if (g == null) {
+                            PaymentGateway gw = proveedores.get(prov);
+                            if (gw == null || !gw.supports(moneda)) { invalidos++; escribirError(out, leidos, "sin proveedor para " + prov + "/" + moneda); continue; }
+                            grupos.put(prov + "/" + moneda, g = new Grupo(prov, moneda, gw));
+                        }
+                        ultimo = g;
+                    }
+                    Chunk ch = g.abierto;
+                    if (ch == null) ch = g.abierto = new Chunk(tamChunk);
+                    ch.lineas[ch.n] = leidos; ch.montos[ch.n] = monto; ch.n++;
+                    if (ch.n == tamChunk) { enviar(g, ch, out); g.abierto = null; }
+                }
+                for (Grupo g : grupos.values()) if (g.abierto != null) enviar(g, g.abierto, out);
+            } catch (Throwable t) {
+                fallo = t;
+                throw t;
+            } finally {
+                // out se cierra al salir del try: antes tienen que terminar todos los chunks ya enviados,
+                // también si la lectura o executor.execute fallaron, para no perder sus escrituras
+                enVuelo.acquireUninterruptibly(maxEnVuelo);
+                enVuelo.release(maxEnVuelo);
+                IOException w = fallo == null ? null : errorEscritura.getAndSet(null);
+                if (w != null) fallo.addSuppressed(w);
+            }
+        }
+        IOException e = errorEscritura.getAndSet(null);
+        if (e != null) throw e;
+        Map<String, Totales> totales = new TreeMap<>();
+        grupos.forEach((k, g) -> totales.put(k, g.totales));
+        return new Resumen(leidos, invalidos, totales, (System.nanoTime() - t0) / 1e9);
+    }
+
+    private void enviar(Grupo g, Chunk ch, Writer out) throws InterruptedException {
+        enVuelo.acquire();
+        try {
+            executor.execute(() -> {
+                try { cobrar(g, ch, out); }
+                catch (IOException e) { errorEscritura.compareAndSet(null, e); }
+                finally { enVuelo.release(); }
+            });
+        } catch (RuntimeException e) {
+            enVuelo.release();
+            throw e;
+        }
+    }
+
+    /** Cobra un chunk completo y escribe su bloque de resultados con una sola toma del writer. */
+    private static void cobrar(Grupo g, Chunk ch, Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(ch.n * 32);
+        long ok = 0, fallidos = 0, monto = 0;
+        for (int i = 0; i < ch.n; i++) {
+            sb.append(ch.lineas[i]);
+            try {
+                campo(sb.append(",OK,"), g.gw.payMinor(ch.montos[i], g.moneda)).append('\n');
+                ok++; monto += ch.montos[i];
+            } catch (Exception e) {
+                campo(sb.append(",ERR,"), String.valueOf(e.getMessage())).append('\n');
+                fallidos++;
+            }
+        }
+        g.totales.ok.add(ok); g.totales.fallidos.add(fallidos); g.totales.montoOk.add(monto);
+        synchronized (out) { out.append(sb); }
+    }
+
+    private static void escribirError(Writer out, long linea, String motivo) throws IOException {
+        StringBuilder sb = campo(new StringBuilder().append(linea).append(",ERR,"), motivo).append('\n');
+        synchronized (out) { out.append(sb); }
+    }
+
+    /** Agrega un campo CSV; entre comillas (duplicando las internas) si trae coma, comillas o salto de línea. */
+    static StringBuilder campo(StringBuilder sb, String v) {
+        boolean citar = false;
+        for (int i = 0; i < v.length() && !citar; i++) { char c = v.charAt(i); citar = c == ',' || c == '"' || c == '\n' || c == '\r'; }
+        if (!citar) return sb.append(v);
+        sb.append('"');
+        for (int i = 0; i < v.length(); i++) { char c = v.charAt(i); if (c == '"') sb.append('"'); sb.append(c); }
+        return sb.append('"');
+    }
+
+    /** "12.3" / "12.34" / "12" -> centavos; -1 si no es un monto válido con hasta 2 decimales o no cabe en un long. */
+    static long centavos(CharSequence s, int desde, int hasta) {
+        long entero = 0; int decimales = -1;
+        for (int i = desde; i < hasta; i++) {
+            char c = s.charAt(i);
+            if (c == '.' && decimales < 0) { decimales = 0; continue; }
+            if (c < '0' || c > '9' || decimales == 2 || entero > (Long.MAX_VALUE - (c - '0')) / 10) return -1;
+            entero = entero * 10 + (c - '0');
+            if (decimales >= 0) decimales++;
+        }
+        if (hasta == desde || decimales == 0) return -1;
+        for (int d = Math.max(decimales, 0); d < 2; d++) {
+            if (entero > Long.MAX_VALUE / 10) return -1;   // el escalado a centavos también puede desbordar
+            entero *= 10;
+        }
+        return entero;
+    }
+
+    // Demo: genera un lote sintético, lo liquida y muestra el resumen
+    public static void main(String[] args) throws Exception {
+        int pagos = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        int tamChunk = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Path entrada = Files.createTempFile("liquidacion", ".csv"), resultado = Files.createTempFile("liquidacion", ".out");
+        String[] filas = {"stripe,25.00,USD", "paypal,15.75,eur", "bank,10,USD", "bank,10.00,EUR", "stripe,0.99,GBP", "paypal,abc,USD"};
+        try (BufferedWriter w = Files.newBufferedWriter(entrada, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < pagos; i++) w.append(filas[i % filas.length]).append('\n');
+        }
+        Map<String, PaymentGateway> proveedores = new HashMap<>();
+        proveedores.put("stripe", new StripeAdapter());
+        proveedores.put("paypal", new PaypalAdapter());
+        proveedores.put("bank", new BankAdapter());
+        ExecutorService ex = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), Hilos.plataforma("liquidacion"));
+        try {
+            System.out.println("=== Adapter — Liquidación masiva (Java) ===");
+            Resumen r = new LiquidacionPagos(proveedores, ex, tamChunk, 4 * Runtime.getRuntime().availableProcessors()).liquidar(entrada, resultado);
+            System.out.print(r);
+            System.out.println("Resultado: " + resultado + " (" + Files.size(resultado) / 1024 + " KiB)");
+        } finally {
+            ex.shutdown();
+            Files.deleteIfExists(entrada);
+            Files.deleteIfExists(resultado);
+        }
+    }
+}
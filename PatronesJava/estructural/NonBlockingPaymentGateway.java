@@ -0,0 +1,33 @@
+package estructural;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envuelve un PaymentGateway bloqueante (con su cliente SDK de larga vida) y lo
+ * ejecuta en el Executor indicado —p.ej. soporte.Hilos.porTarea("pay") para un
+ * hilo virtual por pago— detrás de una caché de idempotencia con TTL.
+ */
+class NonBlockingPaymentGateway implements AsyncPaymentGateway {
+    private final PaymentGateway gateway;
+    private final Executor executor;
+    private final IdempotencyCache cache;
+
+    NonBlockingPaymentGateway(PaymentGateway gateway, Executor executor, long ttl, TimeUnit unidad) {
+        this.gateway = gateway; this.executor = executor; this.cache = new IdempotencyCache(ttl, unidad);
+    }
+
+    public CompletableFuture<String> payAsync(String idempotencyKey, double amount, String currency) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty())
+            throw new IllegalArgumentException("Se requiere idempotencyKey");
+        return cache.obtenerOCobrar(idempotencyKey, amount + " " + currency, () -> CompletableFuture.supplyAsync(() -> {
+            try { return gateway.pay(amount, currency); }
+            catch (RuntimeException e) { throw e; }
+            catch (Exception e) { throw new CompletionException(e); }
+        }, executor));
+    }
+
+    int pagosEnCache() { return cache.tamano(); }
+}
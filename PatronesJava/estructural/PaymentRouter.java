@@ -0,0 +1,172 @@
+package estructural;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * PaymentGateway que enruta entre varios adaptadores.
+ * 1) Filtra por supports(currency), sin provocar excepciones.
+ * 2) Descarta los proveedores con el circuito abierto (una lectura atómica).
+ * 3) Elige el de mejor puntaje reciente: latencia media de la ventana
+ *    penalizada por su tasa de error. Solo si falla sin haber cobrado
+ *    ({@link PagoNoEnviadoException} o ConnectException) prueba con el siguiente;
+ *    una falla ambigua (timeout, error de E/S a mitad de la llamada) puede haber
+ *    cobrado, así que cuenta para el circuito y se propaga sin reintentar en otro.
+ *    Uno de cada {@code EXPLORAR} pagos prueba primero a otro candidato al azar,
+ *    para que un proveedor que se recuperó vuelva a tener muestras frescas; y el
+ *    que acaba de ganar la llamada de prueba de su circuito va primero.
+ * Los rechazos de negocio (IllegalArgumentException, p.ej. monto inválido) no
+ * cuentan como falla del proveedor y se propagan sin reintentar.
+ */
+class PaymentRouter implements PaymentGateway {
+    private static final int EXPLORAR = 32;
+
+    /** Ventana circular de las últimas N llamadas: latencia en ns con el bit bajo = error. Sin locks. */
+    static final class Ventana {
+        private final AtomicLongArray muestras; private final AtomicLong cursor = new AtomicLong();
+        Ventana(int tamano){ muestras = new AtomicLongArray(tamano); }
+        void registrar(long latenciaNs, boolean error) {
+            int i = (int)(cursor.getAndIncrement() % muestras.length());
+            muestras.set(i, (Math.max(1, latenciaNs) << 1) | (error ? 1 : 0));
+        }
+        /** Latencia media (ns) × (1 + 10 × tasa de error); 0 si aún no hay muestras, para explorarlo. */
+        double puntaje() {
+            long suma = 0; int n = 0, errores = 0;
+            for (int i = 0; i < muestras.length(); i++) {
+                long m = muestras.get(i);
+                if (m == 0) continue;
+                suma += m >>> 1; errores += (int)(m & 1); n++;
+            }
+            return n == 0 ? 0 : (suma / (double) n) * (1 + 10.0 * errores / n);
+        }
+        double tasaError() {
+            int n = 0, errores = 0;
+            for (int i = 0; i < muestras.length(); i++) { long m = muestras.get(i); if (m != 0) { n++; errores += (int)(m & 1); } }
+            return n == 0 ? 0 : errores / (double) n;
+        }
+    }
+
+    /** Circuit breaker: CERRADO -> ABIERTO tras N fallos seguidos -> SEMI tras el enfriamiento (una prueba). */
+    static final class Circuito {
+        static final int CERRADO = 0, ABIERTO = 1, SEMI = 2;
+        private final int umbral; private final long enfriamientoNs;
+        private final AtomicInteger estado = new AtomicInteger(CERRADO), fallosSeguidos = new AtomicInteger();
+        private final AtomicLong abiertoDesde = new AtomicLong();
+        Circuito(int umbral, long enfriamientoNs){ this.umbral = umbral; this.enfriamientoNs = enfriamientoNs; }
+
+        /**
+         * Abierto: false sin más costo que dos lecturas. Pasado el enfriamiento, un solo hilo
+         * gana el CAS y obtiene la llamada de prueba; si al final no se usa, habrá otra
+         * oportunidad tras otro enfriamiento.
+         */
+        boolean permite() {
+            if (estado.get() == CERRADO) return true;
+            long desde = abiertoDesde.get(), ahora = System.nanoTime();
+            if (ahora - desde < enfriamientoNs || !abiertoDesde.compareAndSet(desde, ahora)) return false;
+            estado.set(SEMI);
+            return true;
+        }
+        void exito() {   // en el camino feliz solo lee: no ensucia la línea de caché compartida
+            if (fallosSeguidos.get() != 0) fallosSeguidos.set(0);
+            if (estado.get() != CERRADO) estado.set(CERRADO);
+        }
+        void fallo() {
+            if (estado.get() == SEMI || fallosSeguidos.incrementAndGet() >= umbral) {
+                abiertoDesde.set(System.nanoTime());
+                estado.set(ABIERTO);
+            }
+        }
+        boolean enPrueba() { return estado.get() == SEMI; }
+        String nombreEstado() { return new String[]{"CERRADO", "ABIERTO", "SEMI"}[estado.get()]; }
+    }
+
+    static final class Proveedor {
+        final String nombre; final PaymentGateway gateway; final Ventana ventana; final Circuito circuito;
+        Proveedor(String nombre, PaymentGateway gateway, Ventana ventana, Circuito circuito) {
+            this.nombre = nombre; this.gateway = gateway; this.ventana = ventana; this.circuito = circuito;
+        }
+    }
+
+    private final List<Proveedor> proveedores = new ArrayList<>();
+    private final int tamanoVentana, umbralFallos; private final long enfriamientoNs;
+
+    PaymentRouter(){ this(64, 5, 5, TimeUnit.SECONDS); }
+    PaymentRouter(int tamanoVentana, int umbralFallos, long enfriamiento, TimeUnit unidad) {
+        this.tamanoVentana = tamanoVentana; this.umbralFallos = umbralFallos; this.enfriamientoNs = unidad.toNanos(enfriamiento);
+    }
+
+    /** Se registran al configurar, antes de empezar a cobrar. */
+    PaymentRouter agregar(String nombre, PaymentGateway gw) {
+        proveedores.add(new Proveedor(nombre, gw, new Ventana(tamanoVentana), new Circuito(umbralFallos, enfriamientoNs)));
+        return this;
+    }
+
+    public boolean supports(String currency) {
+        for (Proveedor p : proveedores) if (p.gateway.supports(currency)) return true;
+        return false;
+    }
+
+    public String pay(double amount, String currency) throws Exception {
+        Proveedor[] candidatos = new Proveedor[proveedores.size()];
+        double[] puntajes = new double[candidatos.length];
+        int n = 0;
+        for (Proveedor p : proveedores) {
+            if (!p.gateway.supports(currency) || !p.circuito.permite()) continue;
+            double s = p.circuito.enPrueba() ? -1 : p.ventana.puntaje();
+            int i = n++;
+            for (; i > 0 && puntajes[i - 1] > s; i--) { candidatos[i] = candidatos[i - 1]; puntajes[i] = puntajes[i - 1]; }
+            candidatos[i] = p; puntajes[i] = s;
+        }
+        if (n == 0) throw new IllegalStateException("Sin proveedor disponible para " + currency);
+        if (n > 1 && puntajes[0] >= 0 && ThreadLocalRandom.current().nextInt(EXPLORAR) == 0) {
+            int j = 1 + ThreadLocalRandom.current().nextInt(n - 1);
+            Proveedor p = candidatos[0]; candidatos[0] = candidatos[j]; candidatos[j] = p;
+        }
+
+        Exception ultimo = null;
+        for (int i = 0; i < n; i++) {
+            Proveedor p = candidatos[i];
+            long t0 = System.nanoTime();
+            try {
+                String ref = p.gateway.pay(amount, currency);
+                p.ventana.registrar(System.nanoTime() - t0, false);
+                p.circuito.exito();
+                return ref;
+            } catch (IllegalArgumentException e) {
+                p.ventana.registrar(System.nanoTime() - t0, false);
+                p.circuito.exito();
+                throw e;
+            } catch (Exception e) {
+                p.ventana.registrar(System.nanoTime() - t0, true);
+                p.circuito.fallo();
+                if (!noCobro(e)) throw e;   // pudo haber cobrado: reintentar en otro arriesga un doble cargo
+                ultimo = e;
+            }
+        }
+        throw ultimo;
+    }
+
+    /** Fallas que prueban que el proveedor no recibió el pago: las únicas que pasan al siguiente. */
+    static boolean noCobro(Exception e) {
+        return e instanceof PagoNoEnviadoException || e instanceof java.net.ConnectException;
+    }
+
+    String estado() {
+        StringBuilder sb = new StringBuilder();
+        for (Proveedor p : proveedores)
+            sb.append(String.format("%-8s circuito=%-7s latMedia=%.2fms error=%.0f%%%n", p.nombre, p.circuito.nombreEstado(),
+                p.ventana.puntaje() / (1 + 10 * p.ventana.tasaError()) / 1e6, p.ventana.tasaError() * 100));
+        return sb.toString();
+    }
+}
+
+/** El proveedor no llegó a recibir el pago (rechazo antes de enviar, conexión rechazada): es seguro probar otro. */
+class PagoNoEnviadoException extends Exception {
+    private static final long serialVersionUID = 1L;
+    PagoNoEnviadoException(String mensaje) { super(mensaje); }
+}
@@ -0,0 +1,152 @@
+package soporte;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Driver de carga sin interacción: corre un {@link Escenario} con N hilos durante
+ * un tiempo fijo, con o sin tasa objetivo, y reporta throughput y percentiles.
+ * Con tasa, cada hilo sigue su propio calendario (tasa / hilos) y la latencia se
+ * mide desde el instante programado, no desde que el hilo quedó libre: si el
+ * sistema se atrasa, la cola que se forma aparece en p99/p999 (sin omisión coordinada).
+ * Durante la corrida la {@link Salida} de las demos queda apagada (ni siquiera arman
+ * sus mensajes) y lo que aún se imprima por System.out se descarta.
+ */
+public final class Carga {
+
+    /** Parámetros de una corrida; por defecto 4 hilos de plataforma, 10 s, sin límite de tasa. */
+    public static final class Config {
+        int hilos = 4; boolean virtuales; double duracionS = 10, calentamientoS = 2; double tasa;
+        public Config hilos(int n){ if (n <= 0) throw new IllegalArgumentException("hilos > 0"); hilos = n; return this; }
+        public Config virtuales(boolean v){ virtuales = v; return this; }
+        public Config duracionS(double s){ if (s <= 0) throw new IllegalArgumentException("duración > 0"); duracionS = s; return this; }
+        public Config calentamientoS(double s){ calentamientoS = Math.max(0, s); return this; }
+        /** Operaciones por segundo entre todos los hilos; 0 = tan rápido como se pueda. */
+        public Config tasa(double opsPorSegundo){ tasa = Math.max(0, opsPorSegundo); return this; }
+    }
+
+    /**
+     * Resultado de un escenario (solo la ventana medida, sin el calentamiento). falla es el primer
+     * Error (no Exception) que lanzó la operación, o null: también cuenta en errores, pero se
+     * muestra junto a la fila porque suele indicar un escenario roto, no una falla esperada.
+     */
+    public static final class Resultado {
+        public final String escenario; public final int hilos; public final long ops, errores; public final double segundos;
+        public final long p50Ns, p99Ns, p999Ns, maxNs;
+        public final Throwable falla;
+        Resultado(String escenario, int hilos, long ops, long errores, double segundos, Histograma h, Throwable falla) {
+            this.escenario = escenario; this.hilos = hilos; this.ops = ops; this.errores = errores; this.segundos = segundos; this.falla = falla;
+            p50Ns = h.percentil(0.50); p99Ns = h.percentil(0.99); p999Ns = h.percentil(0.999); maxNs = h.max();
+        }
+        public double opsPorSegundo() { return ops / Math.max(1e-9, segundos); }
+        static String cabecera() {
+            return String.format("%-16s %6s %12s %12s %8s %10s %10s %10s %10s",
+                "escenario", "hilos", "ops", "ops/s", "errores", "p50 µs", "p99 µs", "p999 µs", "max µs");
+        }
+        @Override public String toString() {
+            return String.format(Locale.ROOT, "%-16s %6d %12d %12.0f %8d %10.1f %10.1f %10.1f %10.1f",
+                escenario, hilos, ops, opsPorSegundo(), errores, p50Ns / 1e3, p99Ns / 1e3, p999Ns / 1e3, maxNs / 1e3)
+                + (falla == null ? "" : "  (falla: " + falla + ")");
+        }
+        String csv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%d,%d,%d,%d,%d",
+                escenario, hilos, ops, opsPorSegundo(), errores, p50Ns, p99Ns, p999Ns, maxNs);
+        }
+    }
+
+    private Carga() { }
+
+    public static Resultado correr(String nombre, Escenario escenario, Config cfg) throws InterruptedException {
+        Histograma h = new Histograma();
+        LongAdder ops = new LongAdder(), errores = new LongAdder();
+        AtomicReference<Throwable> falla = new AtomicReference<>();
+        long inicio = System.nanoTime() + 50_000_000L;   // margen para arrancar todos los hilos
+        long medirDesde = inicio + (long) (cfg.calentamientoS * 1e9), fin = medirDesde + (long) (cfg.duracionS * 1e9);
+        long intervaloNs = cfg.tasa > 0 ? (long) (1e9 * cfg.hilos / cfg.tasa) : 0;
+        ThreadFactory f = cfg.virtuales ? Hilos.virtuales("carga-" + nombre) : Hilos.plataforma("carga-" + nombre);
+        List<Thread> hilos = new ArrayList<>();
+        Histograma[] porHilo = new Histograma[cfg.hilos];   // uno por hilo: registrar no compite por las mismas líneas de caché
+        for (int i = 0; i < cfg.hilos; i++) {
+            Escenario.Operacion op = escenario.paraHilo(i);
+            long desfase = intervaloNs * i / cfg.hilos;   // reparte los turnos de cada hilo dentro del intervalo
+            Histograma propio = porHilo[i] = new Histograma();
+            Thread t = f.newThread(() -> bucle(op, inicio + desfase, medirDesde, fin, intervaloNs, propio, ops, errores, falla));
+            hilos.add(t);
+            t.start();
+        }
+        for (Thread t : hilos) t.join();
+        for (Histograma propio : porHilo) propio.sumarEn(h);
+        return new Resultado(nombre, cfg.hilos, ops.sum(), errores.sum(), cfg.duracionS, h, falla.get());
+    }
+
+    private static void bucle(Escenario.Operacion op, long inicio, long medirDesde, long fin, long intervaloNs,
+                              Histograma h, LongAdder ops, LongAdder errores, AtomicReference<Throwable> falla) {
+        long programado = inicio;
+        while (true) {
+            long ahora = System.nanoTime();
+            if (intervaloNs == 0) programado = ahora;
+            if (programado - fin >= 0) return;
+            if (programado - ahora > 0) { LockSupport.parkNanos(programado - ahora); continue; }
+            boolean ok = true;
+            try { op.ejecutar(); }
+            catch (Exception e) { ok = false; }
+            catch (Throwable t) { ok = false; falla.compareAndSet(null, t); }   // un Error no debe matar al hilo en silencio
+            if (programado - medirDesde >= 0) {
+                h.registrar(System.nanoTime() - programado);
+                if (ok) ops.increment(); else errores.increment();
+            }
+            programado += intervaloNs;
+        }
+    }
+
+    /**
+     * Arma y corre los escenarios uno tras otro, imprime la tabla y, si csv no es null, agrega una fila por
+     * escenario (con cabecera si el archivo es nuevo). Latencias del CSV en ns.
+     */
+    public static List<Resultado> correrTodos(List<String> nombres, List<Supplier<Escenario>> escenarios, Config cfg, Path csv)
+            throws InterruptedException, IOException {
+        PrintStream consola = System.out;
+        consola.printf("Carga: %d hilos %s, %.0f s (+%.0f s calentamiento), tasa %s%n", cfg.hilos,
+            cfg.virtuales ? (Hilos.hayVirtuales() ? "virtuales" : "virtuales (no disponibles: plataforma)") : "de plataforma",
+            cfg.duracionS, cfg.calentamientoS, cfg.tasa > 0 ? String.format("%.0f ops/s", cfg.tasa) : "sin límite");
+        consola.println(Resultado.cabecera());
+        List<Resultado> resultados = new ArrayList<>();
+        boolean salida = Salida.activa();
+        for (int i = 0; i < escenarios.size(); i++) {
+            Resultado r;
+            Salida.activar(false);
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            try (Escenario e = escenarios.get(i).get()) {   // se arma recién cuando le toca
+                r = correr(nombres.get(i), e, cfg);
+            } finally {
+                System.setOut(consola);
+                Salida.activar(salida);
+            }
+            consola.println(r);
+            resultados.add(r);
+        }
+        if (csv != null) {
+            boolean nuevo = !Files.exists(csv) || Files.size(csv) == 0;
+            try (Writer w = Files.newBufferedWriter(csv, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (nuevo) w.write("escenario,hilos,ops,ops_s,errores,p50_ns,p99_ns,p999_ns,max_ns\n");
+                for (Resultado r : resultados) w.write(r.csv() + "\n");
+            }
+            consola.println("CSV: " + csv.toAbsolutePath());
+        }
+        return resultados;
+    }
+}
@@ -0,0 +1,14 @@
+package soporte;
+
+/**
+ * Escenario de carga para {@link Carga}: la operación que se repite y el estado compartido que la sostiene.
+ * paraHilo() se llama una vez por hilo, así cada hilo puede tener lo suyo (p.ej. un Invocador);
+ * lo que se comparte entre hilos debe ser seguro para uso concurrente.
+ */
+public interface Escenario extends AutoCloseable {
+    Operacion paraHilo(int hilo);
+
+    @Override default void close() { }
+
+    interface Operacion { void ejecutar() throws Exception; }
+}
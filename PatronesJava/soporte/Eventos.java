@@ -0,0 +1,55 @@
+package soporte;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Eventos JFR propios de los patrones. Sin una grabación activa cuestan un
+ * chequeo de bandera: el objeto no escapa y el JIT lo elimina. Patrón de uso:
+ * <pre>
+ *   Eventos.IdEmitido e = new Eventos.IdEmitido();
+ *   e.begin();
+ *   ... trabajo ...
+ *   if (e.shouldCommit()) { e.prefijo = p; e.commit(); }
+ * </pre>
+ * Grabar: java -XX:StartFlightRecording=filename=patrones.jfr,settings=profile ...
+ * y después: jfr print --categories Patrones patrones.jfr
+ */
+public final class Eventos {
+    private Eventos() { }
+
+    @Name("patrones.IdEmitido") @Label("ID emitido") @Category({"Patrones", "Creacional"})
+    public static final class IdEmitido extends Event {
+        @Label("Prefijo") public String prefijo;
+        @Label("Cantidad") @Description("1 en siguiente(); n en siguienteLote()") public int cantidad;
+    }
+
+    @Name("patrones.NotificacionEnviada") @Label("Notificación enviada") @Category({"Patrones", "Creacional"})
+    public static final class NotificacionEnviada extends Event {
+        @Label("Canal") public String canal;
+    }
+
+    @Name("patrones.LlamadaPago") @Label("Llamada a pasarela de pago") @Category({"Patrones", "Estructural"})
+    public static final class LlamadaPago extends Event {
+        @Label("Proveedor") public String proveedor;
+        @Label("Moneda") public String moneda;
+        @Label("OK") @Description("false si la pasarela lanzó una excepción") public boolean ok;
+    }
+
+    @Name("patrones.DespachoObservador") @Label("Despacho a observador") @Category({"Patrones", "Comportamiento"})
+    public static final class DespachoObservador extends Event {
+        @Label("Observador") public String observador;
+        @Label("Nivel") public String nivel;
+        @Label("OK") public boolean ok;
+    }
+
+    @Name("patrones.Comando") @Label("Comando ejecutado/deshecho") @Category({"Patrones", "Comportamiento"})
+    public static final class Comando extends Event {
+        @Label("Tipo") public String tipo;
+        @Label("Operación") @Description("run, undo o redo") public String operacion;
+        @Label("OK") public boolean ok;
+    }
+}
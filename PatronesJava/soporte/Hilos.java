@@ -0,0 +1,59 @@
+package soporte;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fábricas de hilos compartidas por las demos concurrentes.
+ * Los hilos virtuales se piden por reflexión (Thread.ofVirtual, Java 21+) para
+ * que el proyecto siga compilando con Java 17; si no existen, se usan hilos de
+ * plataforma daemon con el mismo nombre base.
+ */
+public final class Hilos {
+    private static final boolean VIRTUALES = fabricaVirtual("sonda") != null;
+
+    private Hilos(){}
+
+    /** true si la JVM actual ofrece hilos virtuales. */
+    public static boolean hayVirtuales() { return VIRTUALES; }
+
+    /** Hilos virtuales "nombre-N" si la JVM los soporta; si no, hilos daemon de plataforma. */
+    public static ThreadFactory virtuales(String nombre) {
+        ThreadFactory f = VIRTUALES ? fabricaVirtual(nombre) : null;
+        return f != null ? f : plataforma(nombre);
+    }
+
+    public static ThreadFactory plataforma(String nombre) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, nombre + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** Un hilo (virtual si se puede) por tarea: el equivalente a newVirtualThreadPerTaskExecutor. */
+    public static ExecutorService porTarea(String nombre) {
+        ThreadFactory f = virtuales(nombre);
+        try {
+            Method m = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) m.invoke(null, f);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(f);
+        }
+    }
+
+    private static ThreadFactory fabricaVirtual(String nombre) {
+        try {
+            Class<?> tipo = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = tipo.getMethod("name", String.class, long.class).invoke(builder, nombre + "-", 1L);
+            return (ThreadFactory) tipo.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package soporte;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma log-lineal de latencias en nanosegundos, sin locks ni asignaciones al registrar.
+ * Cada potencia de dos se parte en 2^SUB cubetas (error relativo ≤ 12,5 %), así
+ * que cubre de 1 ns a Long.MAX_VALUE con ~500 contadores.
+ */
+public final class Histograma {
+    private static final int SUB = 3, POR_OCTAVA = 1 << SUB;
+    private static final int CUBETAS = (64 - SUB + 1) * POR_OCTAVA;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final AtomicLong conteo = new AtomicLong(), suma = new AtomicLong(), max = new AtomicLong();
+
+    public void registrar(long valorNs) {
+        long v = Math.max(0, valorNs);
+        cubetas.incrementAndGet(indice(v));
+        conteo.incrementAndGet();
+        suma.addAndGet(v);
+        long m = max.get();
+        while (v > m && !max.compareAndSet(m, v)) m = max.get();
+    }
+
+    public long conteo() { return conteo.get(); }
+    public long max() { return max.get(); }
+    public double media() { long n = conteo.get(); return n == 0 ? 0 : suma.get() / (double) n; }
+
+    /** Valor (cota superior de la cubeta, acotada por el máximo visto) bajo el que cae la fracción p, 0 < p ≤ 1. */
+    public long percentil(double p) {
+        long n = conteo.get();
+        if (n == 0) return 0;
+        long objetivo = (long) Math.ceil(p * n), acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += cubetas.get(i);
+            if (acumulado >= objetivo) return Math.min(techo(i), max.get());
+        }
+        return max.get();
+    }
+
+    /** Acumula este histograma en destino (Metricas junta así sus franjas y Carga los de cada hilo). */
+    void sumarEn(Histograma destino) {
+        for (int i = 0; i < CUBETAS; i++) {
+            long c = cubetas.get(i);
+            if (c != 0) destino.cubetas.addAndGet(i, c);
+        }
+        destino.conteo.addAndGet(conteo.get());
+        destino.suma.addAndGet(suma.get());
+        destino.max.accumulateAndGet(max.get(), Math::max);
+    }
+
+    public void reiniciar() {
+        for (int i = 0; i < CUBETAS; i++) cubetas.set(i, 0);
+        conteo.set(0); suma.set(0); max.set(0);
+    }
+
+    static int indice(long v) {
+        if (v < POR_OCTAVA) return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros(v);
+        return (e - SUB + 1) * POR_OCTAVA + (int) ((v >>> (e - SUB)) & (POR_OCTAVA - 1));
+    }
+
+    static long techo(int i) {
+        if (i < POR_OCTAVA) return i;
+        int e = i / POR_OCTAVA + SUB - 1, sub = i % POR_OCTAVA;
+        if (e >= 62) return Long.MAX_VALUE;
+        long base = 1L << e, paso = 1L << (e - SUB);
+        return base + (sub + 1) * paso - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.1fµs p99=%.1fµs max=%.1fµs",
+            conteo(), percentil(0.50) / 1e3, percentil(0.99) / 1e3, max() / 1e3);
+    }
+}
@@ -0,0 +1,87 @@
+package soporte;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro único de métricas en proceso, compartido por todos los subsistemas.
+ * Cada sitio pide su Contador o Latencia una vez (campo static final) y en el
+ * camino caliente solo incrementa: sin locks, sin asignaciones y sin compartir
+ * una línea de caché entre hilos. Los contadores son LongAdder (rayados por
+ * diseño); cada Latencia reparte sus registros entre varias franjas de
+ * {@link Histograma} según el hilo y las suma recién al leerla.
+ * Lectura: contadores(), latencias() o reporte(); con -Dpatrones.metricas=true
+ * el reporte se imprime al salir de la JVM.
+ */
+public final class Metricas {
+    private static final int FRANJAS = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+
+    public static final class Contador {
+        private final LongAdder n = new LongAdder();
+        public void incrementar() { n.increment(); }
+        public void sumar(long k) { n.add(k); }
+        public long valor() { return n.sum(); }
+    }
+
+    public static final class Latencia {
+        private final Histograma[] franjas = new Histograma[Math.min(FRANJAS, 64)];
+        Latencia() { for (int i = 0; i < franjas.length; i++) franjas[i] = new Histograma(); }
+        public void registrar(long ns) {
+            long id = Thread.currentThread().getId();
+            franjas[(int) (id ^ (id >>> 16)) & (franjas.length - 1)].registrar(ns);
+        }
+        /** Suma de todas las franjas en un histograma nuevo (copia consistente por cubeta, no global). */
+        public Histograma foto() {
+            Histograma h = new Histograma();
+            for (Histograma f : franjas) f.sumarEn(h);
+            return h;
+        }
+        void reiniciar() { for (Histograma f : franjas) f.reiniciar(); }
+    }
+
+    private static final Map<String, Contador> contadores = new ConcurrentHashMap<>();
+    private static final Map<String, Latencia> latencias = new ConcurrentHashMap<>();
+    private static final Map<String, Histograma> expuestos = new ConcurrentHashMap<>();
+
+    static {
+        if (Boolean.getBoolean("patrones.metricas"))
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(reporte()), "metricas-reporte"));
+    }
+
+    private Metricas() { }
+
+    public static Contador contador(String nombre) { return contadores.computeIfAbsent(nombre, k -> new Contador()); }
+    public static Latencia latencia(String nombre) { return latencias.computeIfAbsent(nombre, k -> new Latencia()); }
+
+    /** Publica un Histograma que el subsistema ya lleva (p.ej. las sondas del healthcheck); el último con ese nombre gana. */
+    public static void exponer(String nombre, Histograma h) { expuestos.put(nombre, h); }
+    /** Deja de publicar h bajo ese nombre (si otro lo reemplazó, no lo toca). */
+    public static void retirar(String nombre, Histograma h) { expuestos.remove(nombre, h); }
+
+    public static Map<String, Long> contadores() {
+        Map<String, Long> m = new TreeMap<>();
+        contadores.forEach((k, c) -> m.put(k, c.valor()));
+        return m;
+    }
+
+    public static Map<String, Histograma> latencias() {
+        Map<String, Histograma> m = new TreeMap<>(expuestos);
+        latencias.forEach((k, l) -> m.put(k, l.foto()));
+        return m;
+    }
+
+    /** Pone en cero contadores y latencias propias (no los histogramas expuestos, que son de su dueño). */
+    public static void reiniciar() {
+        contadores.values().forEach(c -> c.n.reset());
+        latencias.values().forEach(Latencia::reiniciar);
+    }
+
+    public static String reporte() {
+        StringBuilder sb = new StringBuilder("=== Métricas ===\n");
+        contadores().forEach((k, v) -> sb.append(String.format("%-32s %d%n", k, v)));
+        latencias().forEach((k, h) -> { if (h.conteo() > 0) sb.append(String.format("%-32s %s%n", k, h)); });
+        return sb.toString();
+    }
+}
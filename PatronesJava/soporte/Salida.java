@@ -0,0 +1,16 @@
+package soporte;
+
+/**
+ * Interruptor global de los mensajes de consola de las demos.
+ * Los caminos calientes imprimen solo {@code if (Salida.activa())}, así que con
+ * la salida apagada no se arma ni un String. Por defecto está encendida; se
+ * apaga con -Dpatrones.salida=false o con activar(false) (lo hace el modo carga).
+ */
+public final class Salida {
+    private static volatile boolean activa = !"false".equalsIgnoreCase(System.getProperty("patrones.salida", "true"));
+
+    private Salida() { }
+
+    public static boolean activa() { return activa; }
+    public static void activar(boolean valor) { activa = valor; }
+}